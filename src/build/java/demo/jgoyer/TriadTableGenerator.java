@@ -0,0 +1,112 @@
+package demo.jgoyer;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * <p>
+ * Build-time generator of <code>TriadTableData</code>, the constant tables
+ * behind {@link TriadTableEnglish}. Runs the compiled {@link RulesSetEnglish}
+ * over every triad value, 0 to 999, and takes the scale words from
+ * {@link DigitMapEnglish#scaleName(int)}, then writes them out as string
+ * literals. A JVM loading the generated class gets the fragments from the
+ * constant pool, with no rules compiled, no lambda linked and no map built.
+ * </p><p>
+ * The pom compiles this class, together with the rules sources it needs, and
+ * runs it in the generate-sources phase:
+ * </p><p>
+ * <code>
+ * java demo.jgoyer.TriadTableGenerator target/generated-sources/tables
+ * </code>
+ * </p>
+ *
+ * @author jgoyer1
+ *
+ */
+public final class TriadTableGenerator {
+
+	/**
+	 * Number of triads in a long, written out as TriadTableData.GROUPS, which
+	 * TriadTableEnglish.GROUPS refers to.
+	 */
+	private static final int GROUPS = ( Long.toString( Long.MAX_VALUE ).length() + 2 ) / 3;
+
+	private TriadTableGenerator() {
+	}
+
+	/**
+	 * Writes demo/jgoyer/TriadTableData.java under the given source root.
+	 *
+	 * @param args Generated source root.
+	 * @throws IOException If the file cannot be written.
+	 */
+	public static void main( String[] args ) throws IOException {
+		if ( args.length != 1 ) {
+			System.err.println( "usage: TriadTableGenerator <generated source root>" );
+			System.exit( 2 );
+		}
+		Path file = Paths.get( args[ 0 ], "demo", "jgoyer", "TriadTableData.java" );
+		Files.createDirectories( file.getParent() );
+
+		CompiledRules rules = CompiledRules.compile( new RulesSetEnglish() );
+		try ( Writer out = Files.newBufferedWriter( file, StandardCharsets.UTF_8 ) ) {
+			out.write( "package demo.jgoyer;\n\n" );
+			out.write( "/**\n" );
+			out.write( " * English triad fragments and scale words for {@link TriadTableEnglish}.\n" );
+			out.write( " * Generated at build time by TriadTableGenerator from {@link RulesSetEnglish}; do not edit.\n" );
+			out.write( " */\n" );
+			out.write( "final class TriadTableData {\n\n" );
+			out.write( "\tprivate TriadTableData() {}\n\n" );
+
+			out.write( "\t/**\n\t * Number of triads in a long, and of entries in SCALES.\n\t */\n" );
+			out.write( "\tstatic final int GROUPS = " + GROUPS + ";\n\n" );
+
+			out.write( "\tstatic final String ZERO = " + literal( translate( 0, rules ) ) + ";\n\n" );
+
+			out.write( "\t/**\n\t * Fragment of each triad value; empty for zero.\n\t */\n" );
+			out.write( "\tstatic final String[] TRIADS = {\n" );
+			out.write( "\t\t\"\"" );
+			for ( int triad = 1; triad < 1000; triad++ ) {
+				out.write( ",\n\t\t" + literal( translate( triad, rules ) ) );
+			}
+			out.write( "\n\t};\n\n" );
+
+			out.write( "\t/**\n\t * Scale word of each group position; null for the units group.\n\t */\n" );
+			out.write( "\tstatic final String[] SCALES = {\n" );
+			out.write( "\t\tnull" );
+			for ( int group = 1; group < GROUPS; group++ ) {
+				out.write( ",\n\t\t" + literal( DigitMapEnglish.scaleName( group ) ) );
+			}
+			out.write( "\n\t};\n" );
+			out.write( "}\n" );
+		}
+	}
+
+	private static String translate( long value, CompiledRules rules ) {
+		List<DigitRecord> digitRecs = DigitRecords.of( value );
+		rules.apply( digitRecs );
+		return DigitRecords.print( digitRecs );
+	}
+
+	private static String literal( String text ) {
+		StringBuilder out = new StringBuilder( text.length() + 2 ).append( '"' );
+		for ( int i = 0; i < text.length(); i++ ) {
+			char ch = text.charAt( i );
+			if ( ch == '"' || ch == '\\' ) {
+				out.append( '\\' ).append( ch );
+			}
+			else if ( ch < ' ' || ch > '~' ) {
+				out.append( String.format( "\\u%04x", (int)ch ) );
+			}
+			else {
+				out.append( ch );
+			}
+		}
+		return out.append( '"' ).toString();
+	}
+}
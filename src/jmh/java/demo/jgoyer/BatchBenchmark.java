@@ -0,0 +1,62 @@
+package demo.jgoyer;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the cost per row of translating a whole column of amounts into a
+ * reused {@link TranslationBatch}, against one translate() call per row.
+ * 
+ * @author jgoyer1
+ *
+ */
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+@State( Scope.Thread )
+public class BatchBenchmark {
+	
+	@Param( { "3", "7", "10" } )
+	public int digits;
+	
+	private int[] inputs;
+	private IntQuantityTranslator translator;
+	private TranslationBatch batch;
+	
+	@Setup
+	public void setup() {
+		inputs = BenchmarkInputs.withDigits( digits );
+		translator = new IntQuantityTranslator();
+		batch = new TranslationBatch();
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation( BenchmarkInputs.SIZE )
+	public TranslationBatch translateBatch() {
+		return translator.translateBatch( inputs, 0, inputs.length, batch.clear() );
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation( BenchmarkInputs.SIZE )
+	public int translatePerRow() {
+		int chars = 0;
+		for ( int value : inputs ) {
+			chars += translator.withInput( value ).translate().length();
+		}
+		return chars;
+	}
+}
@@ -0,0 +1,52 @@
+package demo.jgoyer;
+
+import java.util.Random;
+
+/**
+ * Generates reproducible benchmark inputs grouped by decimal digit count so
+ * that results for short and long quantities can be compared directly.
+ * 
+ * @author jgoyer1
+ *
+ */
+final class BenchmarkInputs {
+	
+	/**
+	 * Number of inputs per digit count. Must be a power of two so benchmarks
+	 * can cycle through the array with a mask.
+	 */
+	static final int SIZE = 1024;
+	
+	static final int MASK = SIZE - 1;
+	
+	private BenchmarkInputs() {}
+	
+	/**
+	 * Returns SIZE values that each have exactly the given number of decimal digits.
+	 * 
+	 * @param digits Digit count, 1 to 10.
+	 * @return Array of non-negative int values.
+	 */
+	static int[] withDigits( int digits ) {
+		if ( digits < 1 || digits > 10 ) {
+			throw new IllegalArgumentException( "digits must be 1 to 10: " + digits );
+		}
+		long low = ( digits == 1 ) ? 0 : pow10( digits - 1 );
+		long high = Math.min( pow10( digits ) - 1, Integer.MAX_VALUE );
+		
+		Random random = new Random( 31L * digits );
+		int[] values = new int[ SIZE ];
+		for ( int i = 0; i < SIZE; i++ ) {
+			values[ i ] = (int)( low + (long)( random.nextDouble() * ( high - low + 1 ) ) );
+		}
+		return values;
+	}
+	
+	private static long pow10( int exp ) {
+		long result = 1;
+		for ( int i = 0; i < exp; i++ ) {
+			result *= 10;
+		}
+		return result;
+	}
+}
@@ -0,0 +1,76 @@
+package demo.jgoyer;
+
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares {@link BigIntegerQuantityTranslator}, which converts the whole value
+ * to decimal first, with {@link ParallelBigIntegerTranslator} on one huge value
+ * with pools of 1 to N workers. Pass <code>-p cores=1,2,...,N</code> to match 
+ * the machine.
+ * 
+ * @author jgoyer1
+ *
+ */
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+@State( Scope.Benchmark )
+public class BigIntegerBenchmark {
+	
+	@Param( { "10000", "100000", "300000" } )
+	public int digits;
+	
+	@Param( { "1", "4" } )
+	public int cores;
+	
+	private BigInteger value;
+	private ForkJoinPool pool;
+	private final BigIntegerQuantityTranslator compiled = new BigIntegerQuantityTranslator();
+	private final BigIntegerQuantityTranslator table = 
+			new BigIntegerQuantityTranslator().withTranslationMode( TranslationMode.TRIAD_TABLE );
+	
+	@Setup
+	public void setup() {
+		value = new BigInteger( (int)( digits / Math.log10( 2 ) ), new Random( 7 ) );
+		pool = new ForkJoinPool( cores );
+		ParallelBigIntegerTranslator.translate( value, pool );
+	}
+	
+	@TearDown
+	public void tearDown() {
+		pool.shutdown();
+	}
+	
+	@Benchmark
+	public String compiledRules() {
+		return compiled.withInput( value ).translate();
+	}
+	
+	@Benchmark
+	public String triadTable() {
+		return table.withInput( value ).translate();
+	}
+	
+	@Benchmark
+	public String parallel() {
+		return ParallelBigIntegerTranslator.translate( value, pool );
+	}
+}
@@ -0,0 +1,84 @@
+package demo.jgoyer;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares an uncached translator with a {@link CachingQuantityTranslator} over
+ * skewed input, where a few amounts make up most of the traffic. The cache's hit
+ * rate is printed at the end of each trial.
+ * 
+ * @author jgoyer1
+ *
+ */
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class CacheBenchmark {
+	
+	@State( Scope.Benchmark )
+	public static class Shared {
+		@Param( { "LRU", "LFU" } )
+		EvictionPolicy policy;
+		
+		@Param( { "1024" } )
+		int maximumSize;
+		
+		TranslationCache cache;
+		final Integer[] inputs = new Integer[ BenchmarkInputs.SIZE ];
+		
+		@Setup
+		public void setup() {
+			cache = new TranslationCache( maximumSize, policy );
+			// Roughly Zipf: small ranks repeat often, the tail is spread over all ints.
+			Random random = new Random( 42 );
+			for ( int i = 0; i < inputs.length; i++ ) {
+				int rank = (int)Math.pow( 2, random.nextDouble() * 20 );
+				inputs[ i ] = ( rank * 1103515245 ) & Integer.MAX_VALUE;
+			}
+		}
+		
+		@TearDown
+		public void report() {
+			System.out.println( cache.stats() + " hit rate: " + cache.stats().getHitRate() );
+		}
+	}
+	
+	@State( Scope.Thread )
+	public static class PerThread {
+		int next;
+		IntQuantityTranslator plain;
+		CachingQuantityTranslator<Integer> cached;
+		
+		@Setup
+		public void setup( Shared shared ) {
+			plain = new IntQuantityTranslator();
+			cached = new CachingQuantityTranslator<Integer>( new IntQuantityTranslator(), shared.cache );
+		}
+	}
+	
+	@Benchmark
+	public String uncached( Shared shared, PerThread local ) {
+		return local.plain.withInput( shared.inputs[ local.next++ & BenchmarkInputs.MASK ] ).translate();
+	}
+	
+	@Benchmark
+	public String cached( Shared shared, PerThread local ) {
+		return local.cached.withInput( shared.inputs[ local.next++ & BenchmarkInputs.MASK ] ).translate();
+	}
+}
@@ -0,0 +1,46 @@
+package demo.jgoyer;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link DigitMapEnglish#nameOf(int)} and the Optional wrapper 
+ * {@link DigitMapEnglish#intToOptionalName(Integer)} for the kinds of
+ * keys the English rules look up: digits, teens, multiples of ten, powers of
+ * ten and keys that are absent from the map.
+ * 
+ * @author jgoyer1
+ *
+ */
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+@State( Scope.Thread )
+public class DigitMapBenchmark {
+	
+	private static final int[] KEYS = { 0, 7, 13, 19, 40, 90, 100, 1000, 1000000, 1000000000, 99, -1, 10000, 2, 15, 60 };
+	
+	private int next;
+	
+	@Benchmark
+	public Optional<String> intToOptionalName() {
+		return DigitMapEnglish.intToOptionalName( KEYS[ next++ & ( KEYS.length - 1 ) ] );
+	}
+	
+	@Benchmark
+	public String nameOf() {
+		return DigitMapEnglish.nameOf( KEYS[ next++ & ( KEYS.length - 1 ) ] );
+	}
+}
@@ -0,0 +1,66 @@
+package demo.jgoyer;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link ParallelTranslator} on a column of one million mixed-length
+ * amounts with pools of 1 to N workers. Pass <code>-p cores=1,2,...,N</code> 
+ * to match the machine.
+ * 
+ * @author jgoyer1
+ *
+ */
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+@State( Scope.Benchmark )
+public class ParallelBenchmark {
+	
+	@Param( { "1", "2", "4", "8" } )
+	public int cores;
+	
+	private int[] inputs;
+	private ForkJoinPool pool;
+	
+	@Setup
+	public void setup() {
+		Random random = new Random( 7 );
+		inputs = new int[ 1 << 20 ];
+		for ( int i = 0; i < inputs.length; i++ ) {
+			inputs[ i ] = random.nextInt( Integer.MAX_VALUE ) >> random.nextInt( 31 );
+		}
+		pool = new ForkJoinPool( cores );
+	}
+	
+	@TearDown
+	public void tearDown() {
+		pool.shutdown();
+	}
+	
+	@Benchmark
+	public String[] translateAll() {
+		return ParallelTranslator.english().translateAll( inputs, pool );
+	}
+	
+	@Benchmark
+	public TranslationBatch translateAllPacked() {
+		return ParallelTranslator.english().translateAllPacked( inputs, pool );
+	}
+}
@@ -0,0 +1,64 @@
+package demo.jgoyer;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link QuantityParser} on translations of inputs of a given number 
+ * of digits, from Strings and from a direct buffer of ASCII bytes.
+ * 
+ * @author jgoyer1
+ *
+ */
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+@State( Scope.Thread )
+public class ParserBenchmark {
+	
+	@Param( { "1", "4", "7", "10" } )
+	int digits;
+	
+	private final QuantityParser parser = QuantityParser.english();
+	private String[] texts;
+	private ByteBuffer[] bytes;
+	private int next;
+	
+	@Setup
+	public void setup() {
+		int[] inputs = BenchmarkInputs.withDigits( digits );
+		SharedIntTranslator trx = SharedIntTranslator.english();
+		texts = new String[ inputs.length ];
+		bytes = new ByteBuffer[ inputs.length ];
+		for ( int i = 0; i < inputs.length; i++ ) {
+			texts[ i ] = trx.translate( inputs[ i ] );
+			bytes[ i ] = ByteBuffer.allocateDirect( texts[ i ].length() );
+			trx.translate( inputs[ i ], bytes[ i ] );
+			bytes[ i ].flip();
+		}
+	}
+	
+	@Benchmark
+	public int parseString() {
+		return parser.parseInt( texts[ next++ & BenchmarkInputs.MASK ] );
+	}
+	
+	@Benchmark
+	public int parseBytes() {
+		return parser.parseInt( bytes[ next++ & BenchmarkInputs.MASK ] );
+	}
+}
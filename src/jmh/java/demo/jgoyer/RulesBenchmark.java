@@ -0,0 +1,85 @@
+package demo.jgoyer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the English rules pipeline on its own, without the conversion of
+ * the input to digit records or the printing of the result. The records are
+ * reset to their freshly constructed state before each pass, which is part of
+ * the measured cost but is small next to the rules themselves.
+ * 
+ * @author jgoyer1
+ *
+ */
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+@State( Scope.Thread )
+public class RulesBenchmark {
+	
+	@Param( { "1", "3", "6", "10" } )
+	public int digits;
+	
+	private RulesSet rulesSet;
+	private CompiledRules compiled;
+	private List<DigitRecord> records;
+	
+	@Setup
+	public void setup() {
+		rulesSet = new RulesSetEnglish();
+		compiled = CompiledRules.compile( rulesSet );
+		int value = BenchmarkInputs.withDigits( digits )[ 0 ];
+		String reversed = new StringBuilder( Integer.toString( value ) ).reverse().toString();
+		records = new ArrayList<DigitRecord>();
+		for ( char ch : reversed.toCharArray() ) {
+			records.add( new DigitRecord( ch - '0' ) );
+		}
+	}
+	
+	@Benchmark
+	public List<Function<List<DigitRecord>,List<DigitRecord>>> getRulesList() {
+		return rulesSet.getRulesList();
+	}
+	
+	@Benchmark
+	public List<DigitRecord> applyRules() {
+		for ( DigitRecord rec : records ) {
+			rec.setName( null );
+			rec.setSuffix( null );
+			rec.setTrailingSymbol( " " );
+			rec.setHide( Boolean.FALSE );
+		}
+		for ( Function<List<DigitRecord>,List<DigitRecord>> rule : rulesSet.getRulesList() ) {
+			rule.apply( records );
+		}
+		return records;
+	}
+	
+	@Benchmark
+	public List<DigitRecord> applyCompiled() {
+		for ( DigitRecord rec : records ) {
+			rec.setName( null );
+			rec.setSuffix( null );
+			rec.setTrailingSymbol( " " );
+			rec.setHide( Boolean.FALSE );
+		}
+		return compiled.apply( records );
+	}
+}
@@ -0,0 +1,50 @@
+package demo.jgoyer;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares translating consecutive values with a {@link SequentialTranslator},
+ * which rewrites only the triads that changed, against translating each value
+ * from scratch into a reused StringBuilder.
+ * 
+ * @author jgoyer1
+ *
+ */
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+@State( Scope.Thread )
+public class SequentialBenchmark {
+	
+	private static final long START = 1234567000L;
+	
+	private final SequentialTranslator cursor = new SequentialTranslator();
+	private final SharedIntTranslator translator = SharedIntTranslator.english();
+	private final StringBuilder out = new StringBuilder( 128 );
+	private long nextCursor = START;
+	private int nextFromScratch = (int)START;
+	
+	@Benchmark
+	public CharSequence sequential() {
+		return cursor.moveTo( nextCursor++ );
+	}
+	
+	@Benchmark
+	public StringBuilder fromScratch() {
+		out.setLength( 0 );
+		translator.translate( nextFromScratch++, out );
+		return out;
+	}
+}
@@ -0,0 +1,59 @@
+package demo.jgoyer;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures throughput of one {@link SharedIntTranslator} shared by every
+ * benchmark thread. Run with <code>-t 1</code>, <code>-t 2</code>, ... 
+ * <code>-t max</code> to see how throughput scales with cores.
+ * 
+ * @author jgoyer1
+ *
+ */
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class SharedTranslateBenchmark {
+	
+	@State( Scope.Benchmark )
+	public static class Shared {
+		final SharedIntTranslator translator = SharedIntTranslator.english();
+		final int[] inputs = BenchmarkInputs.withDigits( 7 );
+	}
+	
+	@State( Scope.Thread )
+	public static class PerThread {
+		int next;
+		StringBuilder out;
+		
+		@Setup
+		public void setup() {
+			out = new StringBuilder( 128 );
+		}
+	}
+	
+	@Benchmark
+	public String translate( Shared shared, PerThread local ) {
+		return shared.translator.translate( shared.inputs[ local.next++ & BenchmarkInputs.MASK ] );
+	}
+	
+	@Benchmark
+	public StringBuilder translateInto( Shared shared, PerThread local ) {
+		local.out.setLength( 0 );
+		shared.translator.translate( shared.inputs[ local.next++ & BenchmarkInputs.MASK ], local.out );
+		return local.out;
+	}
+}
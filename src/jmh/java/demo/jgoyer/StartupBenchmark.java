@@ -0,0 +1,45 @@
+package demo.jgoyer;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures time to first translation in a fresh JVM: each fork makes a single
+ * call, so the result is dominated by class loading and initialization of the
+ * translator and its tables. Add <code>-f 50</code> or more for a steadier mean.
+ * 
+ * @author jgoyer1
+ *
+ */
+@BenchmarkMode( Mode.SingleShotTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 0 )
+@Measurement( iterations = 1 )
+@Fork( 20 )
+@State( Scope.Benchmark )
+public class StartupBenchmark {
+	
+	@Benchmark
+	public String sharedEnglish() {
+		return SharedIntTranslator.english().translate( 1234567891 );
+	}
+	
+	@Benchmark
+	public String intQuantityTranslator() {
+		return new IntQuantityTranslator().withInput( 1234567891 ).translate();
+	}
+	
+	@Benchmark
+	public String interpretedRules() {
+		return new IntQuantityTranslator().withTranslationMode( TranslationMode.INTERPRETED ).withInput( 1234567891 ).translate();
+	}
+}
@@ -0,0 +1,65 @@
+package demo.jgoyer;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares a translator per element in an IntStream pipeline with the 
+ * {@link TranslationStreams} function and collectors, over one hundred thousand
+ * consecutive amounts, sequential and parallel.
+ * 
+ * @author jgoyer1
+ *
+ */
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+@State( Scope.Benchmark )
+public class StreamBenchmark {
+	
+	private static final int FROM = 1000000;
+	private static final int TO = FROM + 100000;
+	
+	@Param( { "false", "true" } )
+	public boolean parallel;
+	
+	private IntStream values() {
+		IntStream values = IntStream.range( FROM, TO );
+		return parallel ? values.parallel() : values;
+	}
+	
+	@Benchmark
+	public List<String> translatorPerElement() {
+		return values().mapToObj( i -> new IntQuantityTranslator().withInput( i ).translate() ).collect( Collectors.toList() );
+	}
+	
+	@Benchmark
+	public List<String> translating() {
+		return values().mapToObj( TranslationStreams.translating() ).collect( Collectors.toList() );
+	}
+	
+	@Benchmark
+	public TranslationBatch translatingToBatch() {
+		return values().mapToObj( TranslationStreams.translating() ).collect( TranslationStreams.toBatch() );
+	}
+	
+	@Benchmark
+	public TranslationBatch translateToBatch() {
+		return TranslationStreams.translateToBatch( values() );
+	}
+}
@@ -0,0 +1,92 @@
+package demo.jgoyer;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link IntQuantityTranslator#translate()} end to end for inputs
+ * grouped by digit count. Run with <code>-prof gc</code> to see the bytes
+ * allocated per call.
+ * 
+ * @author jgoyer1
+ *
+ */
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+@State( Scope.Thread )
+public class TranslateBenchmark {
+	
+	@Param( { "1", "2", "3", "4", "5", "6", "7", "8", "9", "10" } )
+	public int digits;
+	
+	private int[] inputs;
+	private int next;
+	private IntQuantityTranslator translator;
+	private IntQuantityTranslator interpreted;
+	private IntQuantityTranslator triadTable;
+	private StringBuilder out;
+	private ByteBuffer bytes;
+	
+	@Setup
+	public void setup() {
+		inputs = BenchmarkInputs.withDigits( digits );
+		translator = new IntQuantityTranslator();
+		interpreted = new IntQuantityTranslator().withTranslationMode( TranslationMode.INTERPRETED );
+		triadTable = new IntQuantityTranslator().withTranslationMode( TranslationMode.TRIAD_TABLE );
+		out = new StringBuilder( 128 );
+		bytes = ByteBuffer.allocateDirect( 256 );
+	}
+	
+	@Benchmark
+	public String translate() {
+		return translator.withInput( inputs[ next++ & BenchmarkInputs.MASK ] ).translate();
+	}
+	
+	@Benchmark
+	public String translateInterpreted() {
+		return interpreted.withInput( inputs[ next++ & BenchmarkInputs.MASK ] ).translate();
+	}
+	
+	@Benchmark
+	public String translateTriadTable() {
+		return triadTable.withInput( inputs[ next++ & BenchmarkInputs.MASK ] ).translate();
+	}
+	
+	@Benchmark
+	public String translateNewTranslator() {
+		return new IntQuantityTranslator().withInput( inputs[ next++ & BenchmarkInputs.MASK ] ).translate();
+	}
+	
+	@Benchmark
+	public StringBuilder translatePrimitive() {
+		out.setLength( 0 );
+		translator.translate( inputs[ next++ & BenchmarkInputs.MASK ], out );
+		return out;
+	}
+	
+	@Benchmark
+	public int translateBytes() {
+		bytes.clear();
+		return translator.translate( inputs[ next++ & BenchmarkInputs.MASK ], bytes );
+	}
+	
+	@Benchmark
+	public int translatedLength() {
+		return SharedIntTranslator.english().translatedLength( inputs[ next++ & BenchmarkInputs.MASK ] );
+	}
+}
@@ -0,0 +1,161 @@
+package demo.jgoyer;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Implementation of QuantityTranslator that drives translation of BigInteger
+ * type into strings. Handles any non-negative value; scale words beyond the
+ * vigintillions are named by {@link DigitMapEnglish#scaleName(int)}.
+ * <p>
+ * The input is converted to its decimal digits once, one DigitRecord is made 
+ * per digit and the rules list the {@link RulesSet} generates for that number of
+ * digits is run over them. Every rule acts on a fixed index and the records are
+ * printed in a single pass, so the work after the decimal conversion is linear 
+ * in the number of digits.
+ * <p>
+ * In {@link TranslationMode#TRIAD_TABLE} mode with the default {@link RulesSetEnglish}
+ * no digit records are built: each group of three digits is looked up in 
+ * {@link TriadTableEnglish}. COMPILED and INTERPRETED both run the generated list
+ * directly, since a list generated for the exact number of digits has no rules
+ * to skip.
+ * <p>
+ * A BigIntegerQuantityTranslator holds its input and is not safe to share 
+ * between threads.
+ * 
+ * @author jgoyer1
+ *
+ */
+public class BigIntegerQuantityTranslator extends QuantityTranslator<BigInteger> {
+	
+	private BigInteger input = BigInteger.ZERO;
+	private RulesSet rulesSet = new RulesSetEnglish();  // default
+	private TranslationMode mode = TranslationMode.COMPILED;
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String translate() {
+		if ( RulesInstrumentation.ENABLED ) {
+			long start = System.nanoTime();
+			String result = translate( input );
+			RulesInstrumentation.get().recordTranslation( input.abs().toString().length(), System.nanoTime() - start );
+			return result;
+		}
+		return translate( input );
+	}
+	
+	private String translate( BigInteger value ) {
+		if ( value.signum() < 0 ) {
+			return null;
+		}
+		String decimal = value.toString();
+		if ( mode == TranslationMode.TRIAD_TABLE && rulesSet.getClass() == RulesSetEnglish.class ) {
+			return translateTriads( decimal );
+		}
+		List<DigitRecord> digitRecs = DigitRecords.of( decimal );
+		List<Function<List<DigitRecord>,List<DigitRecord>>> rules = rulesSet.getRulesList( digitRecs.size() );
+		if ( mode == TranslationMode.INTERPRETED ) {
+			rules.stream().map( RulesInstrumentation::instrument ).forEach( rule -> rule.apply( digitRecs ) );
+		}
+		else {
+			for ( Function<List<DigitRecord>,List<DigitRecord>> rule : rules ) {
+				RulesInstrumentation.instrument( rule ).apply( digitRecs );
+			}
+		}
+		return DigitRecords.print( digitRecs );
+	}
+	
+	/**
+	 * Joins the triad fragments and scale words for the decimal digits of a 
+	 * non-negative quantity.
+	 */
+	static String translateTriads( CharSequence decimal ) {
+		int length = decimal.length();
+		if ( length == 1 && decimal.charAt( 0 ) == '0' ) {
+			return TriadTableEnglish.ZERO;
+		}
+		StringBuilder out = new StringBuilder( 12 * length );
+		appendTriads( decimal, 0, out );
+		return out.toString();
+	}
+	
+	/**
+	 * Appends the triad fragments and scale words for the decimal digits of a
+	 * non-negative quantity that is multiplied by 1000 to the power groupOffset,
+	 * separated from anything already in out by a space. Zero appends nothing.
+	 */
+	static void appendTriads( CharSequence decimal, int groupOffset, StringBuilder out ) {
+		int length = decimal.length();
+		int groups = ( length + 2 ) / 3;
+		int end = length - 3 * ( groups - 1 );
+		int start = 0;
+		for ( int group = groups - 1; group >= 0; group-- ) {
+			int triad = 0;
+			for ( int i = start; i < end; i++ ) {
+				triad = 10 * triad + ( decimal.charAt( i ) - '0' );
+			}
+			if ( triad != 0 ) {
+				if ( out.length() > 0 ) {
+					out.append( ' ' );
+				}
+				out.append( TriadTableEnglish.triad( triad ) );
+				if ( group + groupOffset > 0 ) {
+					out.append( ' ' ).append( TriadTableEnglish.scale( group + groupOffset ) );
+				}
+			}
+			start = end;
+			end += 3;
+		}
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public BigIntegerQuantityTranslator withInput( BigInteger input ) {
+		this.input = input;
+		return this;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void setRulesSet( RulesSet rulesSet ) {
+		this.rulesSet = rulesSet;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public RulesSet getRulesSet() {
+		return rulesSet;
+	}
+	
+	/**
+	 * Selects how the rules set is run. Output does not depend on the mode.
+	 * 
+	 * @param mode Translation mode; the default is {@link TranslationMode#COMPILED}.
+	 * @return This translator to allow chained method calling.
+	 */
+	public BigIntegerQuantityTranslator withTranslationMode( TranslationMode mode ) {
+		this.mode = mode;
+		return this;
+	}
+	
+	public TranslationMode getTranslationMode() {
+		return mode;
+	}
+
+	public BigInteger getInput() {
+		return input;
+	}
+
+	public void setInput(BigInteger input) {
+		this.input = input;
+	}
+}
@@ -0,0 +1,62 @@
+package demo.jgoyer;
+
+/**
+ * Immutable snapshot of the counters of a {@link TranslationCache}.
+ * 
+ * @author jgoyer1
+ *
+ */
+public final class CacheStats {
+	
+	private final long hits;
+	private final long misses;
+	private final long evictions;
+	private final int size;
+	
+	CacheStats( long hits, long misses, long evictions, int size ) {
+		this.hits = hits;
+		this.misses = misses;
+		this.evictions = evictions;
+		this.size = size;
+	}
+	
+	/**
+	 * @return Number of lookups that found a translation.
+	 */
+	public long getHits() {
+		return hits;
+	}
+	
+	/**
+	 * @return Number of lookups that had to translate.
+	 */
+	public long getMisses() {
+		return misses;
+	}
+	
+	/**
+	 * @return Number of entries dropped to stay within the maximum size.
+	 */
+	public long getEvictions() {
+		return evictions;
+	}
+	
+	/**
+	 * @return Number of entries held when the snapshot was taken.
+	 */
+	public int getSize() {
+		return size;
+	}
+	
+	/**
+	 * @return Hits divided by lookups, or 0 if there were no lookups.
+	 */
+	public double getHitRate() {
+		long lookups = hits + misses;
+		return ( lookups == 0 ) ? 0.0 : (double)hits / lookups;
+	}
+	
+	public String toString() {
+		return "CacheStats hits: " + hits + " misses: " + misses + " evictions: " + evictions + " size: " + size;
+	}
+}
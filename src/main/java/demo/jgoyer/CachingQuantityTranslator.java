@@ -0,0 +1,89 @@
+package demo.jgoyer;
+
+/**
+ * <p>
+ * Decorator that answers {@link #translate()} from a {@link TranslationCache}
+ * and only calls the wrapped translator on a miss. Repeated amounts, which
+ * dominate typical traffic, then skip the rules pipeline altogether.
+ * </p><p>
+ * Example:
+ * </p><p>
+ * <code>
+ * TranslationCache cache = new TranslationCache( 10000, EvictionPolicy.LRU );
+ * QuantityTranslator&lt;Integer&gt; trx = new CachingQuantityTranslator&lt;Integer&gt;( new IntQuantityTranslator(), cache );
+ * System.out.println( trx.withInput( 314 ).translate() );
+ * System.out.println( cache.stats() );
+ * </code>
+ * </p><p>
+ * Entries are keyed by the input and the rules of the wrapped translator's
+ * {@link RulesSet}, so translators with the same rules share entries and
+ * translators with different rules can share one cache. A wrapped translator
+ * whose {@link #getRulesSet()} returns null only shares entries with itself.
+ * Like the translators it wraps, a CachingQuantityTranslator holds its input
+ * and is not safe to share between threads; the cache is.
+ * </p>
+ * 
+ * @author jgoyer1
+ *
+ */
+public class CachingQuantityTranslator<T> extends QuantityTranslator<T> {
+	
+	private final QuantityTranslator<T> delegate;
+	private final TranslationCache cache;
+	private T input = null;
+	
+	/**
+	 * @param delegate Translator called on a cache miss.
+	 * @param cache Cache consulted before the delegate; may be shared.
+	 */
+	public CachingQuantityTranslator( QuantityTranslator<T> delegate, TranslationCache cache ) {
+		this.delegate = delegate;
+		this.cache = cache;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String translate() {
+		final T value = input;
+		if ( value == null ) {
+			return delegate.translate();
+		}
+		RulesSet rulesSet = delegate.getRulesSet();
+		Object rules = ( rulesSet == null ) ? delegate : TranslationCache.rulesKey( rulesSet );
+		return cache.get( value, rules, () -> delegate.withInput( value ).translate() );
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public CachingQuantityTranslator<T> withInput( T input ) {
+		this.input = input;
+		return this;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void setRulesSet( RulesSet rules ) {
+		delegate.setRulesSet( rules );
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public RulesSet getRulesSet() {
+		return delegate.getRulesSet();
+	}
+	
+	/**
+	 * @return Cache consulted by this translator.
+	 */
+	public TranslationCache getCache() {
+		return cache;
+	}
+}
@@ -0,0 +1,192 @@
+package demo.jgoyer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+/**
+ * <p>
+ * A {@link RulesSet} compiled into one evaluator per digit count. The rules list
+ * is flattened into arrays, and for each digit count the {@link IndexedRule}
+ * instances whose index is out of range are dropped, since they would only
+ * check the size of the list and return. Rules that are not indexed are always
+ * kept. Rules run in the order of the original list, so the records end in 
+ * exactly the state the interpreted pipeline leaves them in.
+ * <p>
+ * The rules of {@link RulesSetEnglish} are fused into the evaluator: each is 
+ * kept as a kind and an index, and the evaluator calls the body of the rule 
+ * directly, so there is no call through a Function and a BiFunction and no
+ * boxed index per rule. Any other rule is called through its Function. The 
+ * rules still act on {@link DigitRecord} objects; the English paths that skip
+ * the records altogether, {@link EnglishIntWriter} and {@link TriadTableEnglish},
+ * are several times faster.
+ * <p>
+ * Compilation reads the rules list once. A rules set that changes its list 
+ * afterwards must be compiled again. The translators compile their rules set
+ * when it is set and keep the result. With {@link RulesInstrumentation} enabled
+ * the kept rules are wrapped as they are compiled, and none is fused; the 
+ * dropped rules are counted as no-ops whenever they are skipped.
+ * 
+ * @author jgoyer1
+ *
+ */
+public final class CompiledRules {
+	
+	/**
+	 * Most recently compiled rules. Translators compile their rules set once and
+	 * keep the result, and most use the shared int and long lists of 
+	 * {@link RulesSetEnglish}, so a handful of entries saves compiling those 
+	 * again for every new translator. A miss only costs a compilation.
+	 */
+	private static final AtomicReferenceArray<CompiledRules> RECENT = new AtomicReferenceArray<CompiledRules>( 4 );
+	
+	private static final AtomicInteger nextSlot = new AtomicInteger();
+	
+	private final List<Function<List<DigitRecord>,List<DigitRecord>>> source;
+	
+	/**
+	 * Rules to run indexed by digit count. The last entry holds every rule and is 
+	 * used for any longer list.
+	 */
+	private final Function<List<DigitRecord>,List<DigitRecord>>[][] byLength;
+	
+	/**
+	 * Kind, from {@link RulesSetEnglish#kindOf(java.util.function.BiFunction)}, 
+	 * and index of each rule of byLength.
+	 */
+	private final int[][] kinds;
+	private final int[][] indexes;
+	
+	/**
+	 * Instrumented rules dropped for each digit count; empty unless 
+	 * {@link RulesInstrumentation#ENABLED}.
+	 */
+	private final Function<List<DigitRecord>,List<DigitRecord>>[][] skipped;
+	
+	@SuppressWarnings( "unchecked" )
+	private CompiledRules( List<Function<List<DigitRecord>,List<DigitRecord>>> source ) {
+		this.source = source;
+		
+		int maxIndex = -1;
+		for ( Function<List<DigitRecord>,List<DigitRecord>> rule : source ) {
+			if ( rule instanceof IndexedRule ) {
+				maxIndex = Math.max( maxIndex, ( (IndexedRule)rule ).getIndex() );
+			}
+		}
+		
+		byLength = new Function[ maxIndex + 2 ][];
+		kinds = new int[ byLength.length ][];
+		indexes = new int[ byLength.length ][];
+		skipped = new Function[ byLength.length ][];
+		for ( int size = 0; size < byLength.length; size++ ) {
+			List<Function<List<DigitRecord>,List<DigitRecord>>> kept = new ArrayList<Function<List<DigitRecord>,List<DigitRecord>>>();
+			List<Function<List<DigitRecord>,List<DigitRecord>>> dropped = new ArrayList<Function<List<DigitRecord>,List<DigitRecord>>>();
+			for ( Function<List<DigitRecord>,List<DigitRecord>> rule : source ) {
+				if ( !( rule instanceof IndexedRule ) || ( (IndexedRule)rule ).getIndex() < size ) {
+					kept.add( RulesInstrumentation.instrument( rule ) );
+				}
+				else if ( RulesInstrumentation.ENABLED ) {
+					dropped.add( RulesInstrumentation.instrument( rule ) );
+				}
+			}
+			byLength[ size ] = kept.toArray( new Function[ kept.size() ] );
+			skipped[ size ] = dropped.toArray( new Function[ dropped.size() ] );
+			kinds[ size ] = new int[ kept.size() ];
+			indexes[ size ] = new int[ kept.size() ];
+			for ( int i = 0; i < kept.size(); i++ ) {
+				Function<List<DigitRecord>,List<DigitRecord>> rule = kept.get( i );
+				if ( rule instanceof IndexedRule ) {
+					kinds[ size ][ i ] = RulesSetEnglish.kindOf( ( (IndexedRule)rule ).getRule() );
+					indexes[ size ][ i ] = ( (IndexedRule)rule ).getIndex();
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Compiles the current rules list of rulesSet. Returns an earlier result
+	 * when it was compiled from the same list instance.
+	 * 
+	 * @param rulesSet Rules to compile.
+	 * @return Compiled rules.
+	 */
+	public static CompiledRules compile( RulesSet rulesSet ) {
+		return compile( rulesSet.getRulesList() );
+	}
+	
+	/**
+	 * Compiles the rules list rulesSet returns for quantities of up to digitCount
+	 * digits. The result is valid for any list of at most digitCount records.
+	 * 
+	 * @param rulesSet Rules to compile.
+	 * @param digitCount Largest number of digits to be translated.
+	 * @return Compiled rules.
+	 */
+	public static CompiledRules compile( RulesSet rulesSet, int digitCount ) {
+		return compile( rulesSet.getRulesList( digitCount ) );
+	}
+	
+	private static CompiledRules compile( List<Function<List<DigitRecord>,List<DigitRecord>>> rules ) {
+		for ( int i = 0; i < RECENT.length(); i++ ) {
+			CompiledRules compiled = RECENT.get( i );
+			if ( compiled != null && compiled.source == rules ) {
+				return compiled;
+			}
+		}
+		CompiledRules compiled = new CompiledRules( rules );
+		RECENT.set( ( nextSlot.getAndIncrement() & Integer.MAX_VALUE ) % RECENT.length(), compiled );
+		return compiled;
+	}
+	
+	/**
+	 * Runs the rules that can apply to a list of this size.
+	 * 
+	 * @param recs Digit records in ascending order of magnitude.
+	 * @return The same list.
+	 */
+	public List<DigitRecord> apply( List<DigitRecord> recs ) {
+		int size = Math.min( recs.size(), byLength.length - 1 );
+		Function<List<DigitRecord>,List<DigitRecord>>[] rules = byLength[ size ];
+		int[] kind = kinds[ size ];
+		int[] index = indexes[ size ];
+		if ( RulesInstrumentation.ENABLED ) {
+			RulesInstrumentation.countSkipped( skipped[ size ] );
+		}
+		for ( int i = 0; i < rules.length; i++ ) {
+			switch ( kind[ i ] ) {
+				case RulesSetEnglish.ADD_DIGIT_NAME:
+					RulesSetEnglish.applyAddDigitName( recs, index[ i ] );
+					break;
+				case RulesSetEnglish.SUBSTITUTE_WITH_TIMES_TEN:
+					RulesSetEnglish.applySubstituteWithTimesTen( recs, index[ i ] );
+					break;
+				case RulesSetEnglish.SUBSTITUTE_COMBINE_WITH_PREVIOUS:
+					RulesSetEnglish.applySubstituteCombineWithPrevious( recs, index[ i ] );
+					break;
+				case RulesSetEnglish.ADD_MAGNITUDE_SUFFIX:
+					RulesSetEnglish.applyAddMagnitudeSuffix( recs, index[ i ] );
+					break;
+				default:
+					rules[ i ].apply( recs );
+			}
+		}
+		return recs;
+	}
+	
+	/**
+	 * @param size Number of digit records.
+	 * @return Number of rules run for a list of that size.
+	 */
+	public int getRuleCount( int size ) {
+		return byLength[ Math.min( size, byLength.length - 1 ) ].length;
+	}
+	
+	/**
+	 * @return The rules list this was compiled from.
+	 */
+	public List<Function<List<DigitRecord>,List<DigitRecord>>> getSource() {
+		return source;
+	}
+}
@@ -0,0 +1,389 @@
+package demo.jgoyer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * <p>
+ * Checks that a candidate translation path produces exactly the text of a
+ * reference, by default {@link IntQuantityTranslator} running {@link RulesSetEnglish}
+ * in {@link TranslationMode#INTERPRETED} mode, for every int in a range, up to 
+ * the whole range 0 to Integer.MAX_VALUE. The interpreted pipeline is used so
+ * that the compiled rules are verified rather than trusted. Worker threads, one
+ * per core by default, claim chunks of consecutive values. For each value both
+ * texts are built in full and compared with String.contentEquals; only the 
+ * mismatches are kept.
+ * </p><p>
+ * Example:
+ * </p><p>
+ * <code>
+ * DifferentialVerifier.Result result = DifferentialVerifier.english()
+ *     .verify( SharedIntTranslator.english()::translate, 0, Integer.MAX_VALUE );
+ * System.out.println( result );
+ * </code>
+ * </p><p>
+ * Once the maximum number of mismatches has been found every worker stops, so
+ * a broken candidate fails fast and no more than that many are ever held. The
+ * mismatches reported are the lowest values found, each with the
+ * {@link DigitRecord#debug()} trace of the reference rules set for its value,
+ * which is computed once the workers have stopped.
+ * </p>
+ *
+ * @author jgoyer1
+ *
+ */
+public final class DifferentialVerifier {
+
+	private static final int DEFAULT_CHUNK = 1 << 16;
+	private static final int DEFAULT_MAX_MISMATCHES = 10;
+
+	private final IntFunction<String> reference;
+	private final RulesSet referenceRules;
+	private int threads = Runtime.getRuntime().availableProcessors();
+	private int chunkSize = DEFAULT_CHUNK;
+	private int maxMismatches = DEFAULT_MAX_MISMATCHES;
+
+	/**
+	 * @param reference Translator producing the expected text; one instance is made per worker.
+	 */
+	public DifferentialVerifier( Supplier<? extends QuantityTranslator<Integer>> reference ) {
+		this.reference = perThread( reference );
+		this.referenceRules = reference.get().getRulesSet();
+	}
+
+	/**
+	 * @return Verifier against {@link IntQuantityTranslator} interpreting {@link RulesSetEnglish}.
+	 */
+	public static DifferentialVerifier english() {
+		return new DifferentialVerifier( () -> new IntQuantityTranslator().withTranslationMode( TranslationMode.INTERPRETED ) );
+	}
+
+	/**
+	 * Adapts a mutable translator to a function any thread may call, by keeping
+	 * one translator per thread.
+	 *
+	 * @param translators Supplier of new translators.
+	 * @return Function returning the translation of its argument.
+	 */
+	public static IntFunction<String> perThread( Supplier<? extends QuantityTranslator<Integer>> translators ) {
+		ThreadLocal<QuantityTranslator<Integer>> local = ThreadLocal.withInitial( translators );
+		return value -> local.get().withInput( value ).translate();
+	}
+
+	/**
+	 * @param threads Number of worker threads; the default is one per core.
+	 * @return This verifier to allow chained method calling.
+	 */
+	public DifferentialVerifier withThreads( int threads ) {
+		this.threads = Math.max( 1, threads );
+		return this;
+	}
+
+	/**
+	 * @param chunkSize Number of consecutive values a worker claims at a time.
+	 * @return This verifier to allow chained method calling.
+	 */
+	public DifferentialVerifier withChunkSize( int chunkSize ) {
+		this.chunkSize = Math.max( 1, chunkSize );
+		return this;
+	}
+
+	/**
+	 * @param maxMismatches Number of mismatches after which verification stops, and the most reported.
+	 * @return This verifier to allow chained method calling.
+	 */
+	public DifferentialVerifier withMaxMismatches( int maxMismatches ) {
+		this.maxMismatches = Math.max( 1, maxMismatches );
+		return this;
+	}
+
+	/**
+	 * Verifies a mutable translator, one instance of which is made per worker.
+	 *
+	 * @param candidate Supplier of candidate translators.
+	 * @param from First value.
+	 * @param to Last value, inclusive.
+	 * @return Outcome of the comparison.
+	 * @throws InterruptedException If interrupted while waiting for the workers.
+	 */
+	public Result verifyTranslator( Supplier<? extends QuantityTranslator<Integer>> candidate, int from, int to )
+			throws InterruptedException {
+		return verify( perThread( candidate ), from, to );
+	}
+
+	/**
+	 * Verifies a candidate function, which is called from several threads at once.
+	 *
+	 * @param candidate Function translating a value; null means untranslated.
+	 * @param from First value.
+	 * @param to Last value, inclusive.
+	 * @return Outcome of the comparison.
+	 * @throws InterruptedException If interrupted while waiting for the workers.
+	 */
+	public Result verify( IntFunction<? extends CharSequence> candidate, int from, int to ) throws InterruptedException {
+		AtomicLong nextChunk = new AtomicLong( from );
+		AtomicLong checked = new AtomicLong();
+		AtomicInteger mismatchCount = new AtomicInteger();
+		List<Mismatch> found = new ArrayList<Mismatch>();
+
+		long start = System.nanoTime();
+		ExecutorService executor = Executors.newFixedThreadPool( threads );
+		try {
+			List<Future<List<Mismatch>>> futures = new ArrayList<Future<List<Mismatch>>>();
+			for ( int t = 0; t < threads; t++ ) {
+				futures.add( executor.submit( () -> compare( candidate, to, nextChunk, checked, mismatchCount ) ) );
+			}
+			for ( Future<List<Mismatch>> future : futures ) {
+				found.addAll( future.get() );
+			}
+		}
+		catch ( ExecutionException e ) {
+			throw new IllegalStateException( "verification failed", e.getCause() );
+		}
+		finally {
+			executor.shutdownNow();
+		}
+		long elapsed = System.nanoTime() - start;
+
+		found.sort( ( a, b ) -> Integer.compare( a.value, b.value ) );
+		List<Mismatch> reported = new ArrayList<Mismatch>();
+		for ( Mismatch mismatch : found ) {
+			reported.add( new Mismatch( mismatch.value, mismatch.expected, mismatch.actual, trace( mismatch.value ) ) );
+		}
+		return new Result( checked.get(), mismatchCount.get(), reported, elapsed );
+	}
+
+	/**
+	 * Work of one worker: claims chunks until the range or the mismatch budget
+	 * runs out, and returns the mismatches it took a share of the budget for, in
+	 * order of value and without traces.
+	 */
+	private List<Mismatch> compare( IntFunction<? extends CharSequence> candidate, int to,
+			                        AtomicLong nextChunk, AtomicLong checked, AtomicInteger mismatchCount ) {
+		List<Mismatch> found = new ArrayList<Mismatch>();
+		long first;
+		while ( mismatchCount.get() < maxMismatches && ( first = nextChunk.getAndAdd( chunkSize ) ) <= to ) {
+			long last = Math.min( first + chunkSize - 1, to );
+			long value = first;
+			boolean full = false;
+			while ( !full && value <= last ) {
+				String expected = reference.apply( (int)value );
+				CharSequence actual = candidate.apply( (int)value );
+				if ( !sameText( expected, actual ) ) {
+					// Take a share of the budget, or stop if another worker used it up
+					int count = mismatchCount.getAndUpdate( c -> Math.min( c + 1, maxMismatches ) );
+					if ( count < maxMismatches ) {
+						found.add( new Mismatch( (int)value, expected, actual, Collections.<String>emptyList() ) );
+					}
+					full = ( count + 1 >= maxMismatches );
+				}
+				value++;
+			}
+			checked.addAndGet( value - first );
+		}
+		return found;
+	}
+
+	private static boolean sameText( String expected, CharSequence actual ) {
+		if ( expected == null || actual == null ) {
+			return expected == actual;
+		}
+		return expected.contentEquals( actual );
+	}
+
+	/**
+	 * Runs the reference rules over the records of value and lists their final state.
+	 */
+	private List<String> trace( int value ) {
+		List<String> trace = new ArrayList<String>();
+		if ( value >= 0 && referenceRules != null ) {
+			List<DigitRecord> digitRecs = DigitRecords.of( value );
+			for ( Function<List<DigitRecord>,List<DigitRecord>> rule : referenceRules.getRulesList() ) {
+				rule.apply( digitRecs );
+			}
+			for ( DigitRecord rec : digitRecs ) {
+				trace.add( rec.debug() );
+			}
+		}
+		return trace;
+	}
+
+	/**
+	 * A value whose translations differ.
+	 */
+	public static final class Mismatch {
+		private final int value;
+		private final String expected;
+		private final String actual;
+		private final List<String> trace;
+
+		Mismatch( int value, CharSequence expected, CharSequence actual, List<String> trace ) {
+			this.value = value;
+			this.expected = ( expected == null ) ? null : expected.toString();
+			this.actual = ( actual == null ) ? null : actual.toString();
+			this.trace = Collections.unmodifiableList( trace );
+		}
+
+		/**
+		 * @return Value translated.
+		 */
+		public int getValue() {
+			return value;
+		}
+
+		/**
+		 * @return Translation of the reference.
+		 */
+		public String getExpected() {
+			return expected;
+		}
+
+		/**
+		 * @return Translation of the candidate.
+		 */
+		public String getActual() {
+			return actual;
+		}
+
+		/**
+		 * @return {@link DigitRecord#debug()} of each record, least significant first, after the reference rules ran.
+		 */
+		public List<String> getTrace() {
+			return trace;
+		}
+
+		public String toString() {
+			StringBuilder out = new StringBuilder();
+			out.append( value ).append( ": expected \"" ).append( expected ).append( "\" but was \"" ).append( actual ).append( '"' );
+			for ( String line : trace ) {
+				out.append( "\n    " ).append( line );
+			}
+			return out.toString();
+		}
+	}
+
+	/**
+	 * Outcome of a verification.
+	 */
+	public static final class Result {
+		private final long checked;
+		private final int mismatchCount;
+		private final List<Mismatch> mismatches;
+		private final long elapsedNanos;
+
+		Result( long checked, int mismatchCount, List<Mismatch> mismatches, long elapsedNanos ) {
+			this.checked = checked;
+			this.mismatchCount = mismatchCount;
+			this.mismatches = Collections.unmodifiableList( new ArrayList<Mismatch>( mismatches ) );
+			this.elapsedNanos = elapsedNanos;
+		}
+
+		/**
+		 * @return True if every value checked matched.
+		 */
+		public boolean isMatch() {
+			return mismatchCount == 0;
+		}
+
+		/**
+		 * @return Number of values compared; fewer than the range if verification stopped early.
+		 */
+		public long getChecked() {
+			return checked;
+		}
+
+		/**
+		 * @return Number of mismatches found; verification stops once it reaches the maximum.
+		 */
+		public int getMismatchCount() {
+			return mismatchCount;
+		}
+
+		/**
+		 * @return The lowest mismatches found, in order of value.
+		 */
+		public List<Mismatch> getMismatches() {
+			return mismatches;
+		}
+
+		/**
+		 * @return Values compared per second.
+		 */
+		public double getThroughput() {
+			return checked * 1e9 / elapsedNanos;
+		}
+
+		public String toString() {
+			StringBuilder out = new StringBuilder();
+			out.append( String.format( "%d values checked, %d mismatches, %.1f s, %.0f values/s",
+					                   checked, mismatchCount, elapsedNanos / 1e9, getThroughput() ) );
+			for ( Mismatch mismatch : mismatches ) {
+				out.append( '\n' ).append( mismatch );
+			}
+			return out.toString();
+		}
+	}
+
+	/**
+	 * Verifies one of the fast English paths against {@link IntQuantityTranslator}.
+	 *
+	 * @param args Candidate, one of compiled, shared, triad, bytes or compact, and optionally the first and last values.
+	 * @throws InterruptedException If interrupted.
+	 */
+	public static void main( String[] args ) throws InterruptedException {
+		if ( args.length != 1 && args.length != 3 ) {
+			System.err.println( "usage: DifferentialVerifier <compiled|shared|triad|bytes|compact> [<from> <to>]" );
+			System.exit( 2 );
+		}
+		int from = ( args.length == 3 ) ? Integer.parseInt( args[ 1 ] ) : 0;
+		int to = ( args.length == 3 ) ? Integer.parseInt( args[ 2 ] ) : Integer.MAX_VALUE;
+		DifferentialVerifier verifier = english();
+		Result result;
+		switch ( args[ 0 ] ) {
+			case "compiled":
+				result = verifier.verifyTranslator(
+						() -> new IntQuantityTranslator().withTranslationMode( TranslationMode.COMPILED ), from, to );
+				break;
+			case "shared":
+				result = verifier.verify( TranslationStreams.translating(), from, to );
+				break;
+			case "triad":
+				result = verifier.verifyTranslator(
+						() -> new IntQuantityTranslator().withTranslationMode( TranslationMode.TRIAD_TABLE ), from, to );
+				break;
+			case "bytes":
+				ThreadLocal<ByteBuffer> buffers = ThreadLocal.withInitial( () -> ByteBuffer.allocate( 256 ) );
+				result = verifier.verify( value -> {
+					ByteBuffer buffer = buffers.get();
+					buffer.clear();
+					if ( SharedIntTranslator.english().translate( value, buffer ) < 0 ) {
+						return null;
+					}
+					buffer.flip();
+					return StandardCharsets.US_ASCII.decode( buffer );
+				}, from, to );
+				break;
+			case "compact":
+				result = verifier.verify( SharedIntTranslator.english()::translateCompact, from, to );
+				break;
+			default:
+				System.err.println( "unknown candidate " + args[ 0 ] );
+				System.exit( 2 );
+				return;
+		}
+		System.out.println( result );
+		System.exit( result.isMatch() ? 0 : 1 );
+	}
+}
@@ -1,8 +1,6 @@
 package demo.jgoyer;
 
-import java.util.Arrays;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -12,9 +10,12 @@ import java.util.Optional;
  * those quantities.  For instance, the Integer 50 maps to the English 
  * name "fifty." In this implementation all names are lower case.
  * <p>
- * The most significant method is the intToOptionalName() routine. It 
- * returns an Optional&lt;String%gt; instance that prevents the lookup from 
- * throwing an exception.
+ * The most significant method is the nameOf() routine. It looks names up in 
+ * dense arrays indexed by the quantity for 0 through 99 and by the exponent for
+ * powers of ten, and returns null rather than throwing when a quantity has no
+ * name. The tables are filled during class initialization and never change, so
+ * lookups take no lock and allocate nothing. intToOptionalName() wraps the 
+ * result in an Optional&lt;String&gt;.
  * <p>
  * This map is expected to be used in the implementation of English-language
  * rules for printing Integer quantities. @see RulesSet. 
@@ -24,67 +25,185 @@ import java.util.Optional;
  */
 public class DigitMapEnglish {
 
-	protected List<String> tenZero = 
-			Arrays.asList( "zero", "one", "two", "three", "four", "five", "six", "seven", "eight", "nine" );
+	private static final String[] TEN_ZERO = 
+			{ "zero", "one", "two", "three", "four", "five", "six", "seven", "eight", "nine" };
 	
-	protected List<String> teens = 
-			Arrays.asList( "ten", "eleven", "twelve", "thirteen", "fourteen", "fifteen", 
-					       "sixteen", "seventeen", "eighteen", "nineteen" );
+	private static final String[] TEENS = 
+			{ "ten", "eleven", "twelve", "thirteen", "fourteen", "fifteen", 
+			  "sixteen", "seventeen", "eighteen", "nineteen" };
 	
-	protected List<String> tenOne = 
-			Arrays.asList( "ten", "twenty", "thirty", "forty", "fifty", 
-				       "sixty", "seventy", "eighty", "ninety" );
+	private static final String[] TEN_ONE = 
+			{ "ten", "twenty", "thirty", "forty", "fifty", 
+			  "sixty", "seventy", "eighty", "ninety" };
     
-	protected List<String> bigs = 
-    	    Arrays.asList( "hundred", "thousand", "million", "billion" );
-  
-	protected Map<Integer,String> digitNames = new HashMap<Integer,String>();
+	private static final String[] BIGS = 
+    	    { "hundred", "thousand", "million", "billion", "trillion", "quadrillion",
+    	      "quintillion", "sextillion", "septillion", "octillion", "nonillion", "decillion",
+    	      "undecillion", "duodecillion", "tredecillion", "quattuordecillion", "quindecillion",
+    	      "sexdecillion", "septendecillion", "octodecillion", "novemdecillion", "vigintillion" };
+	
+	/**
+	 * Names of 0 through 99 indexed by quantity; null where a quantity, such as 
+	 * 42, has no single name.
+	 */
+	private static final String[] SMALL_NAMES = new String[ 100 ];
+	
+	/**
+	 * Names of 10^k indexed by k, for the powers of ten that fit an int. Null 
+	 * where the power, such as 10^4, has no name of its own.
+	 */
+	private static final String[] POWER_NAMES = { null, null, BIGS[ 0 ], BIGS[ 1 ], null, null, BIGS[ 2 ], null, null, BIGS[ 3 ] };
+	
+	private static final int[] POWERS_OF_TEN = { 1, 10, 100, 1000, 10000, 100000, 1000000, 10000000, 100000000, 1000000000 };
+	
+	static {
+		for ( int i = 0; i < TEN_ZERO.length; i++ ) {
+			SMALL_NAMES[ i ] = TEN_ZERO[ i ];
+		}
+		for ( int i = 0; i < TEENS.length; i++ ) {
+			SMALL_NAMES[ 10 + i ] = TEENS[ i ];
+		}
+		for ( int i = 0; i < TEN_ONE.length; i++ ) {
+			SMALL_NAMES[ 10 * ( i + 1 ) ] = TEN_ONE[ i ];
+		}
+	}
     
     private DigitMapEnglish() {
-		Arrays.asList( 0,1,2,3,4,5,6,7,8,9 ).forEach( i -> digitNames.put( i, tenZero.get( i ) ) );
-		Arrays.asList( 10,11,12,13,14,15,16,17,18,19 ).forEach( i -> digitNames.put( i, teens.get( i - 10 ) ) );
-		Arrays.asList( 10,20,30,40,50,60,70,80,90 ).forEach( i -> digitNames.put( i, tenOne.get( i/10 - 1 ) ) );
-		digitNames.put( 100, bigs.get( 0 ) );
-		digitNames.put( 1000, bigs.get( 1 ) );
-		digitNames.put( 10000, null );
-		digitNames.put( 100000, null );
-		digitNames.put( 1000000, bigs.get( 2 ) );
-		digitNames.put( 10000000, null );
-		digitNames.put( 100000000, null );
-		digitNames.put( 1000000000, bigs.get( 3 ) );
     }
     
     /**
-     * Stores static instance of this class. A static instance method creates
-     * a singleton instance, stores it here and returns it for all subsequent
-     * requests for the map.
+     * Returns the name of a quantity: a digit, a teen, a multiple of ten below 100 
+     * or a named power of ten up to a billion.
+     * 
+     * @param key Quantity to be named.
+     * @return Name of key, or null if it has none.
      */
-    private static DigitMapEnglish instance = null;
+    public static String nameOf( int key ) {
+    	if ( key >= 0 && key < SMALL_NAMES.length ) {
+    		return SMALL_NAMES[ key ];
+    	}
+    	for ( int exponent = 2; exponent < POWERS_OF_TEN.length; exponent++ ) {
+    		if ( key == POWERS_OF_TEN[ exponent ] ) {
+    			return POWER_NAMES[ exponent ];
+    		}
+    	}
+    	return null;
+    }
     
     /**
-     * Returns copy of this map using the copy constructor for HashMap.
+     * Returns a new map of every quantity with an entry in this dictionary to its
+     * name. Powers of ten without a name of their own map to null.
      * 
      * @return Copy of the Map&lt;Integer,String&gt; of digit to String mappings.
      */
     public static Map<Integer,String> getNamesMap( ) {
-    	return new HashMap<Integer,String>( getInstance().digitNames );
+    	Map<Integer,String> names = new HashMap<Integer,String>();
+    	for ( int i = 0; i < SMALL_NAMES.length; i++ ) {
+    		if ( SMALL_NAMES[ i ] != null ) {
+    			names.put( i, SMALL_NAMES[ i ] );
+    		}
+    	}
+    	for ( int exponent = 2; exponent < POWERS_OF_TEN.length; exponent++ ) {
+    		names.put( POWERS_OF_TEN[ exponent ], POWER_NAMES[ exponent ] );
+    	}
+    	return names;
     }
     
-    private static synchronized DigitMapEnglish getInstance() {
-    	if ( instance == null ) {
-    		instance = new DigitMapEnglish();
+    /**
+     * Returns the scale word for a group of three digits, counted from the units
+     * group. Group 1 is "thousand", group 2 "million", group 3 "billion" and so
+     * on through "vigintillion" at group 21. Larger groups are named by the 
+     * Conway-Wechsler system, for instance "centillion" at group 101, so every 
+     * group of an arbitrarily large quantity has a name.
+     * 
+     * @param group Group index, 1 or more.
+     * @return Scale word for the group, or null for group 0, which has none.
+     */
+    public static String scaleName( int group ) {
+    	if ( group < 1 ) {
+    		return null;
+    	}
+    	if ( group < BIGS.length ) {
+    		return BIGS[ group ];
+    	}
+    	return ConwayWechsler.illion( group - 1 );
+    }
+    
+    /**
+     * Builds "-illion" names for n &ge; 10 from Latin prefixes, where the name
+     * denotes 10^(3n+3).
+     */
+    private static final class ConwayWechsler {
+    	
+    	private static final String[] SMALL = { "n", "m", "b", "tr", "quadr", "quint", "sext", "sept", "oct", "non" };
+    	private static final String[] UNITS = { "", "un", "duo", "tre", "quattuor", "quinqua", "se", "septe", "octo", "nove" };
+    	private static final String[] TENS = { "", "deci", "viginti", "triginta", "quadraginta", "quinquaginta",
+    			                               "sexaginta", "septuaginta", "octoginta", "nonaginta" };
+    	private static final String[] HUNDREDS = { "", "centi", "ducenti", "trecenti", "quadringenti", "quingenti",
+    			                                   "sescenti", "septingenti", "octingenti", "nongenti" };
+    	
+    	// Letters a tens or hundreds prefix allows the preceding units prefix to take on
+    	private static final String[] TENS_MARKS = { "", "n", "ms", "ns", "ns", "ns", "n", "n", "mx", "" };
+    	private static final String[] HUNDREDS_MARKS = { "", "nx", "n", "ns", "ns", "ns", "n", "n", "mx", "" };
+    	
+    	static String illion( int n ) {
+    		StringBuilder name = new StringBuilder();
+    		int chunks = 1;
+    		for ( int rest = n / 1000; rest > 0; rest /= 1000 ) {
+    			chunks *= 1000;
+    		}
+    		for ( int scale = chunks; scale > 0; scale /= 1000 ) {
+    			appendChunk( name, ( n / scale ) % 1000 );
+    			name.append( scale == 1 ? "llion" : "lli" );
+    		}
+    		return name.toString();
+    	}
+    	
+    	/**
+    	 * Appends the prefix for a chunk of 0 to 999, ending in "i" so "llion" or "lli" can follow.
+    	 */
+    	private static void appendChunk( StringBuilder name, int chunk ) {
+    		if ( chunk < 10 ) {
+    			name.append( SMALL[ chunk ] ).append( 'i' );
+    			return;
+    		}
+    		int units = chunk % 10;
+    		int tens = ( chunk / 10 ) % 10;
+    		int hundreds = chunk / 100;
+    		
+    		String marks = ( tens > 0 ) ? TENS_MARKS[ tens ] : HUNDREDS_MARKS[ hundreds ];
+    		name.append( UNITS[ units ] );
+    		if ( units == 3 && ( marks.indexOf( 's' ) >= 0 || marks.indexOf( 'x' ) >= 0 ) ) {
+    			name.append( 's' );
+    		}
+    		else if ( units == 6 && marks.indexOf( 's' ) >= 0 ) {
+    			name.append( 's' );
+    		}
+    		else if ( units == 6 && marks.indexOf( 'x' ) >= 0 ) {
+    			name.append( 'x' );
+    		}
+    		else if ( ( units == 7 || units == 9 ) && marks.indexOf( 'm' ) >= 0 ) {
+    			name.append( 'm' );
+    		}
+    		else if ( ( units == 7 || units == 9 ) && marks.indexOf( 'n' ) >= 0 ) {
+    			name.append( 'n' );
+    		}
+    		name.append( TENS[ tens ] ).append( HUNDREDS[ hundreds ] );
+    		
+    		// Latin prefixes end in a vowel that the suffix replaces with "i"
+    		name.setLength( name.length() - 1 );
+    		name.append( 'i' );
     	}
-    	return instance;
     }
     
     /**
      * Gets an Optional&lt;String&gt; instance containing the value found 
-     * for the key parameter value.  
+     * for the key parameter value. Thin wrapper around {@link #nameOf(int)}.
      * 
      * @param key Digit to be mapped.
      * @return Optional containing string result of mapping.
      */
     public static Optional<String> intToOptionalName( Integer key ) {
-    	return Optional.ofNullable( getInstance().digitNames.get( key ) );
+    	return ( key == null ) ? Optional.empty() : Optional.ofNullable( nameOf( key ) );
     }
 }
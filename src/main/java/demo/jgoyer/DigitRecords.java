@@ -0,0 +1,58 @@
+package demo.jgoyer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds lists of {@link DigitRecord} for translators and prints them once the
+ * rules have run. Records are listed in ascending order of magnitude.
+ * 
+ * @author jgoyer1
+ *
+ */
+final class DigitRecords {
+	
+	private DigitRecords() {}
+	
+	/**
+	 * @param value Non-negative quantity.
+	 * @return One record per decimal digit of value.
+	 */
+	static List<DigitRecord> of( long value ) {
+		List<DigitRecord> digitRecs = new ArrayList<DigitRecord>( 19 );
+		do {
+			digitRecs.add( new DigitRecord( (int)( value % 10 ) ) );
+			value /= 10;
+		} while ( value > 0 );
+		return digitRecs;
+	}
+	
+	/**
+	 * @param decimal Decimal digits of a non-negative quantity, most significant first.
+	 * @return One record per digit.
+	 */
+	static List<DigitRecord> of( CharSequence decimal ) {
+		List<DigitRecord> digitRecs = new ArrayList<DigitRecord>( decimal.length() );
+		for ( int i = decimal.length() - 1; i >= 0; i-- ) {
+			digitRecs.add( new DigitRecord( decimal.charAt( i ) - '0' ) );
+		}
+		return digitRecs;
+	}
+	
+	/**
+	 * Prints the records that are not hidden, most significant first. Runs in time
+	 * linear in the number of records.
+	 * 
+	 * @param digitRecs Records after the rules have run.
+	 * @return Translated text.
+	 */
+	static String print( List<DigitRecord> digitRecs ) {
+		StringBuilder result = new StringBuilder( 16 * digitRecs.size() );
+		for ( int i = digitRecs.size() - 1; i >= 0 ; i-- ) {
+			if ( !digitRecs.get(i).getHide() ) {
+			  result.append( digitRecs.get( i ) );
+		    }
+		}
+	    return result.toString().trim();
+	}
+}
@@ -0,0 +1,119 @@
+package demo.jgoyer;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * <p>
+ * Writes the English name of a primitive int or long straight to an Appendable.
+ * The output is identical to running {@link RulesSetEnglish} through
+ * {@link IntQuantityTranslator#translate()} or {@link LongQuantityTranslator#translate()},
+ * but no DigitRecord, boxed value or intermediate String is created: the value
+ * is split arithmetically into triads and the precomputed fragments and scale
+ * words of {@link TriadTableEnglish} are appended. The ByteBuffer variant copies
+ * the pre-encoded ASCII bytes of the same fragments, with no charset encoder.
+ * 
+ * @author jgoyer1
+ *
+ */
+final class EnglishIntWriter {
+	
+	private EnglishIntWriter() {}
+	
+	/**
+	 * Appends the English name of value to out.
+	 * 
+	 * @param value Quantity to translate.
+	 * @param out Destination of the translated text.
+	 * @return False, with nothing appended, if value is negative; true otherwise.
+	 * @throws IOException If out throws.
+	 */
+	static boolean write( long value, Appendable out ) throws IOException {
+		if ( value < 0 ) {
+			return false;
+		}
+		if ( value == 0 ) {
+			out.append( TriadTableEnglish.ZERO );
+			return true;
+		}
+		boolean first = true;
+		for ( int group = TriadTableEnglish.groupCount( value ) - 1; group >= 0; group-- ) {
+			int triad = TriadTableEnglish.triadAt( value, group );
+			if ( triad != 0 ) {
+				if ( !first ) {
+					out.append( ' ' );
+				}
+				out.append( TriadTableEnglish.triad( triad ) );
+				if ( group > 0 ) {
+					out.append( ' ' ).append( TriadTableEnglish.scale( group ) );
+				}
+				first = false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Puts the English name of value, encoded as ASCII, into out. Nothing is put 
+	 * unless the whole name fits.
+	 * 
+	 * @param value Quantity to translate.
+	 * @param out Destination buffer, heap or direct.
+	 * @return Number of bytes put, or -1, with nothing put, if value is negative.
+	 * @throws BufferOverflowException If out has too little room; its position is unchanged.
+	 */
+	static int write( long value, ByteBuffer out ) {
+		if ( value < 0 ) {
+			return -1;
+		}
+		int length = length( value );
+		if ( out.remaining() < length ) {
+			throw new BufferOverflowException();
+		}
+		if ( value == 0 ) {
+			out.put( TriadTableEnglish.ZERO_BYTES );
+			return length;
+		}
+		boolean first = true;
+		for ( int group = TriadTableEnglish.groupCount( value ) - 1; group >= 0; group-- ) {
+			int triad = TriadTableEnglish.triadAt( value, group );
+			if ( triad != 0 ) {
+				if ( !first ) {
+					out.put( (byte)' ' );
+				}
+				out.put( TriadTableEnglish.triadBytes( triad ) );
+				if ( group > 0 ) {
+					out.put( (byte)' ' ).put( TriadTableEnglish.scaleBytes( group ) );
+				}
+				first = false;
+			}
+		}
+		return length;
+	}
+	
+	/**
+	 * Adds up the precomputed lengths of the fragments, scale words and single 
+	 * spaces that make up the English name of value, without building it.
+	 * 
+	 * @param value Non-negative quantity.
+	 * @return Number of characters in the English name of value.
+	 */
+	static int length( long value ) {
+		if ( value == 0 ) {
+			return TriadTableEnglish.ZERO.length();
+		}
+		int length = -1;  // no separator before the first triad
+		for ( int group = 0; value != 0; group++ ) {
+			int triad = (int)( value % 1000 );
+			value /= 1000;
+			if ( triad != 0 ) {
+				length += 1 + TriadTableEnglish.triadLength( triad );
+				if ( group > 0 ) {
+					length += 1 + TriadTableEnglish.scaleLength( group );
+				}
+			}
+		}
+		return length;
+	}
+}
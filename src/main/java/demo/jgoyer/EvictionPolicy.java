@@ -0,0 +1,21 @@
+package demo.jgoyer;
+
+/**
+ * Selects which entry a full {@link TranslationCache} drops to make room.
+ * 
+ * @author jgoyer1
+ *
+ */
+public enum EvictionPolicy {
+	
+	/**
+	 * Drops the entry that was read or written longest ago.
+	 */
+	LRU,
+	
+	/**
+	 * Drops the entry read the fewest times, the oldest of them on a tie. Suits
+	 * traffic where a stable set of amounts dominates.
+	 */
+	LFU
+}
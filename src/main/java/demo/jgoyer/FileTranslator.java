@@ -0,0 +1,201 @@
+package demo.jgoyer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * <p>
+ * Streams a file of newline-separated non-negative integers into a file with
+ * one translated line per input line. The input is memory-mapped a window at a
+ * time and its ASCII digits are parsed in place, so no String is created per
+ * line; translations are put as UTF-8 bytes, pre-encoded for English, into a
+ * reused direct ByteBuffer and drained to the output channel. Heap use does not
+ * depend on the size of the file: only one mapped window and one output buffer
+ * are live at a time.
+ * <p>
+ * Translation follows {@link IntQuantityTranslator} through the given 
+ * {@link SharedIntTranslator}. Blank input lines produce blank output lines, a
+ * carriage return before a newline or at the end of the file is ignored, and 
+ * any other character, a carriage return anywhere else or a value above 
+ * Integer.MAX_VALUE fails with a NumberFormatException naming the line.
+ * </p><p>
+ * Example:
+ * </p><p>
+ * <code>
+ * long lines = new FileTranslator().translate( Paths.get( "amounts.txt" ), Paths.get( "amounts-en.txt" ) );
+ * </code>
+ * </p>
+ * 
+ * @author jgoyer1
+ *
+ */
+public final class FileTranslator {
+	
+	private static final int DEFAULT_WINDOW = 64 << 20;
+	private static final int DEFAULT_BUFFER = 256 << 10;
+	
+	/**
+	 * Smallest output buffer; longer than any English int translation.
+	 */
+	private static final int MIN_BUFFER = 256;
+	
+	private final SharedIntTranslator translator;
+	private final int windowSize;
+	private final int bufferSize;
+	
+	/**
+	 * Creates a file translator for {@link RulesSetEnglish} with a 64 MB input 
+	 * window and a 256 KB output buffer.
+	 */
+	public FileTranslator() {
+		this( SharedIntTranslator.english(), DEFAULT_WINDOW, DEFAULT_BUFFER );
+	}
+	
+	/**
+	 * @param translator Translator applied to every line.
+	 * @param windowSize Number of input bytes mapped at a time.
+	 * @param bufferSize Size of the direct output buffer, at least 256 bytes; a
+	 *                   longer line is written on its own.
+	 */
+	public FileTranslator( SharedIntTranslator translator, int windowSize, int bufferSize ) {
+		if ( windowSize < 1 || bufferSize < MIN_BUFFER ) {
+			throw new IllegalArgumentException( "window " + windowSize + ", buffer " + bufferSize );
+		}
+		this.translator = translator;
+		this.windowSize = windowSize;
+		this.bufferSize = bufferSize;
+	}
+	
+	/**
+	 * Translates every line of input into output, replacing any existing output file.
+	 * 
+	 * @param input File of newline-separated integers.
+	 * @param output File to write.
+	 * @return Number of lines written.
+	 * @throws IOException If either file cannot be read or written.
+	 */
+	public long translate( Path input, Path output ) throws IOException {
+		try ( FileChannel in = FileChannel.open( input, StandardOpenOption.READ );
+			  FileChannel out = FileChannel.open( output, StandardOpenOption.WRITE, StandardOpenOption.CREATE, 
+					                              StandardOpenOption.TRUNCATE_EXISTING ) ) {
+			return translate( in, out );
+		}
+	}
+	
+	/**
+	 * Translates every line of in, from position zero to its size, into out.
+	 * 
+	 * @param in Channel of newline-separated integers.
+	 * @param out Channel the lines are written to.
+	 * @return Number of lines written.
+	 * @throws IOException If a channel fails.
+	 */
+	public long translate( FileChannel in, WritableByteChannel out ) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocateDirect( bufferSize );
+		
+		long lines = 0;
+		long value = 0;
+		boolean digits = false;
+		boolean carriageReturn = false;
+		long size = in.size();
+		for ( long position = 0; position < size; position += windowSize ) {
+			MappedByteBuffer window = in.map( FileChannel.MapMode.READ_ONLY, position, Math.min( windowSize, size - position ) );
+			while ( window.hasRemaining() ) {
+				byte b = window.get();
+				if ( carriageReturn && b != '\n' ) {
+					throw new NumberFormatException( "Carriage return before the end of line " + ( lines + 1 ) );
+				}
+				if ( b >= '0' && b <= '9' ) {
+					value = 10 * value + ( b - '0' );
+					if ( value > Integer.MAX_VALUE ) {
+						throw new NumberFormatException( "Value out of range on line " + ( lines + 1 ) );
+					}
+					digits = true;
+				}
+				else if ( b == '\n' ) {
+					writeLine( value, digits, buffer, out );
+					lines++;
+					value = 0;
+					digits = false;
+					carriageReturn = false;
+				}
+				else if ( b == '\r' ) {
+					carriageReturn = true;
+				}
+				else {
+					throw new NumberFormatException( "Unexpected character 0x" + Integer.toHexString( b & 0xff ) 
+					                                 + " on line " + ( lines + 1 ) );
+				}
+			}
+		}
+		if ( digits ) {
+			writeLine( value, true, buffer, out );
+			lines++;
+		}
+		drain( buffer, out );
+		return lines;
+	}
+	
+	private void writeLine( long value, boolean digits, ByteBuffer buffer, WritableByteChannel out ) throws IOException {
+		if ( !digits ) {
+			if ( !buffer.hasRemaining() ) {
+				drain( buffer, out );
+			}
+		}
+		else if ( translator.isEnglish() ) {
+			// ASCII, measured from the tables without translating, and shorter than MIN_BUFFER
+			if ( buffer.remaining() < translator.translatedLength( (int)value ) + 1 ) {
+				drain( buffer, out );
+			}
+			translator.translate( (int)value, buffer );
+		}
+		else {
+			// Translated once, then measured and copied
+			String text = translator.translate( (int)value );
+			int length = IntQuantityTranslator.utf8Length( text ) + 1;
+			if ( buffer.remaining() < length ) {
+				drain( buffer, out );
+			}
+			if ( length > buffer.capacity() ) {
+				// Longer than the whole buffer, which is empty now
+				ByteBuffer line = ByteBuffer.wrap( ( text + "\n" ).getBytes( StandardCharsets.UTF_8 ) );
+				while ( line.hasRemaining() ) {
+					out.write( line );
+				}
+				return;
+			}
+			IntQuantityTranslator.putUtf8( text, buffer );
+		}
+		buffer.put( (byte)'\n' );
+	}
+	
+	private static void drain( ByteBuffer buffer, WritableByteChannel out ) throws IOException {
+		buffer.flip();
+		while ( buffer.hasRemaining() ) {
+			out.write( buffer );
+		}
+		buffer.clear();
+	}
+	
+	/**
+	 * Translates the file named by the first argument into the file named by the second.
+	 * 
+	 * @param args Input and output file names.
+	 * @throws IOException If either file cannot be read or written.
+	 */
+	public static void main( String[] args ) throws IOException {
+		if ( args.length != 2 ) {
+			System.err.println( "usage: FileTranslator <input> <output>" );
+			System.exit( 2 );
+		}
+		long lines = new FileTranslator().translate( Paths.get( args[ 0 ] ), Paths.get( args[ 1 ] ) );
+		System.out.println( lines + " lines" );
+	}
+}
@@ -0,0 +1,256 @@
+package demo.jgoyer;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * <p>
+ * Compact, immutable CharSequence holding an English translation as indices
+ * into a shared table of words instead of as characters. Each word is one
+ * byte: six bits for the word, one of the names in {@link DigitMapEnglish} or
+ * a scale word, and two bits for the separator after it, a space, a hyphen or
+ * none. A ten-digit translation of about a hundred characters takes sixteen
+ * bytes, and a value below a thousand shares its bytes with every other
+ * translation of the same value.
+ * </p><p>
+ * {@link #charAt(int)}, {@link #length()} and {@link #subSequence(int, int)}
+ * work on the words directly; subsequences share the word bytes and nothing is
+ * flattened until {@link #toString()} is called. Equal texts are equal and hash
+ * like the Strings they spell.
+ * </p><p>
+ * The words of each triad are taken from the fragments of
+ * {@link TriadTableEnglish}, so the text is exactly that of
+ * {@link LongQuantityTranslator} with {@link RulesSetEnglish}. Use
+ * {@link SharedIntTranslator#translateCompact(long)} to create one.
+ * </p>
+ *
+ * @author jgoyer1
+ *
+ */
+public final class FragmentText implements CharSequence {
+
+	private static final int NONE = 0;
+	private static final int SPACE = 1;
+	private static final int HYPHEN = 2;
+	private static final char[] SEPARATORS = { 0, ' ', '-' };
+	private static final int SEPARATOR_SHIFT = 6;
+	private static final int WORD_MASK = ( 1 << SEPARATOR_SHIFT ) - 1;
+
+	/**
+	 * Shared word table: names of 0 to 90, "hundred", then the scale words.
+	 */
+	private static final String[] WORDS;
+
+	/**
+	 * Words of each triad fragment, the last with no separator.
+	 */
+	private static final byte[][] TRIAD_WORDS = new byte[ 1000 ][];
+	private static final byte[] SCALE_WORDS = new byte[ TriadTableEnglish.GROUPS ];
+	private static final byte[] ZERO_WORDS;
+
+	static {
+		Map<String,Integer> ids = new HashMap<String,Integer>();
+		String[] words = new String[ WORD_MASK + 1 ];
+		int count = 0;
+		for ( int value = 0; value <= 100; value++ ) {
+			String name = DigitMapEnglish.nameOf( value );
+			if ( name != null && !ids.containsKey( name ) ) {
+				ids.put( name, count );
+				words[ count++ ] = name;
+			}
+		}
+		for ( int group = 1; group < TriadTableEnglish.GROUPS; group++ ) {
+			String name = TriadTableEnglish.scale( group );
+			SCALE_WORDS[ group ] = (byte)count;
+			ids.put( name, count );
+			words[ count++ ] = name;
+		}
+		WORDS = Arrays.copyOf( words, count );
+
+		ZERO_WORDS = split( TriadTableEnglish.ZERO, ids );
+		for ( int triad = 1; triad < TRIAD_WORDS.length; triad++ ) {
+			TRIAD_WORDS[ triad ] = split( TriadTableEnglish.triad( triad ), ids );
+		}
+	}
+
+	/**
+	 * Splits a fragment into word bytes.
+	 */
+	private static byte[] split( String fragment, Map<String,Integer> ids ) {
+		byte[] words = new byte[ fragment.length() ];
+		int count = 0;
+		int start = 0;
+		for ( int i = 0; i <= fragment.length(); i++ ) {
+			char ch = ( i < fragment.length() ) ? fragment.charAt( i ) : 0;
+			if ( ch == ' ' || ch == '-' || ch == 0 ) {
+				Integer id = ids.get( fragment.substring( start, i ) );
+				if ( id == null ) {
+					throw new IllegalStateException( "No shared word for \"" + fragment.substring( start, i ) + "\"" );
+				}
+				int separator = ( ch == ' ' ) ? SPACE : ( ch == '-' ) ? HYPHEN : NONE;
+				words[ count++ ] = (byte)( id | ( separator << SEPARATOR_SHIFT ) );
+				start = i + 1;
+			}
+		}
+		return Arrays.copyOf( words, count );
+	}
+
+	private final byte[] words;
+
+	/**
+	 * Offset, in characters, of this sequence within the text the words spell.
+	 */
+	private final int offset;
+	private final int length;
+	private int hash;
+
+	private FragmentText( byte[] words, int offset, int length ) {
+		this.words = words;
+		this.offset = offset;
+		this.length = length;
+	}
+
+	/**
+	 * Translates a non-negative value into a FragmentText.
+	 *
+	 * @param value Quantity to translate.
+	 * @return The translation, or null if value is negative.
+	 */
+	static FragmentText of( long value ) {
+		if ( value < 0 ) {
+			return null;
+		}
+		if ( value == 0 ) {
+			return new FragmentText( ZERO_WORDS, 0, TriadTableEnglish.ZERO.length() );
+		}
+		int length = EnglishIntWriter.length( value );
+		if ( value < 1000 ) {
+			return new FragmentText( TRIAD_WORDS[ (int)value ], 0, length );
+		}
+
+		int count = 0;
+		for ( int group = TriadTableEnglish.groupCount( value ) - 1; group >= 0; group-- ) {
+			int triad = TriadTableEnglish.triadAt( value, group );
+			if ( triad != 0 ) {
+				count += TRIAD_WORDS[ triad ].length + ( ( group > 0 ) ? 1 : 0 );
+			}
+		}
+		byte[] words = new byte[ count ];
+		int next = 0;
+		for ( int group = TriadTableEnglish.groupCount( value ) - 1; group >= 0; group-- ) {
+			int triad = TriadTableEnglish.triadAt( value, group );
+			if ( triad != 0 ) {
+				if ( next > 0 ) {
+					words[ next - 1 ] |= SPACE << SEPARATOR_SHIFT;
+				}
+				byte[] triadWords = TRIAD_WORDS[ triad ];
+				System.arraycopy( triadWords, 0, words, next, triadWords.length );
+				next += triadWords.length;
+				if ( group > 0 ) {
+					words[ next - 1 ] |= SPACE << SEPARATOR_SHIFT;
+					words[ next++ ] = SCALE_WORDS[ group ];
+				}
+			}
+		}
+		return new FragmentText( words, 0, length );
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int length() {
+		return length;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Walks the words from the start, so the cost grows with the number of words
+	 * before index, at most a few dozen.
+	 */
+	@Override
+	public char charAt( int index ) {
+		if ( index < 0 || index >= length ) {
+			throw new IndexOutOfBoundsException( "index " + index + ", length " + length );
+		}
+		int target = offset + index;
+		int position = 0;
+		for ( byte word : words ) {
+			String text = WORDS[ word & WORD_MASK ];
+			if ( target < position + text.length() ) {
+				return text.charAt( target - position );
+			}
+			position += text.length();
+			if ( target == position ) {
+				return SEPARATORS[ ( word & 0xff ) >>> SEPARATOR_SHIFT ];
+			}
+			position++;
+		}
+		throw new IllegalStateException( "index " + index + " past the words" );
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The subsequence shares the words of this one.
+	 */
+	@Override
+	public FragmentText subSequence( int start, int end ) {
+		if ( start < 0 || end > length || start > end ) {
+			throw new IndexOutOfBoundsException( "start " + start + ", end " + end + ", length " + length );
+		}
+		return new FragmentText( words, offset + start, end - start );
+	}
+
+	/**
+	 * @return The text as a new String.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder out = new StringBuilder( offset + length );
+		for ( byte word : words ) {
+			out.append( WORDS[ word & WORD_MASK ] );
+			int separator = ( word & 0xff ) >>> SEPARATOR_SHIFT;
+			if ( separator != NONE ) {
+				out.append( SEPARATORS[ separator ] );
+			}
+		}
+		return out.substring( offset, offset + length );
+	}
+
+	/**
+	 * Equal to another FragmentText that spells the same characters.
+	 */
+	@Override
+	public boolean equals( Object other ) {
+		if ( this == other ) {
+			return true;
+		}
+		if ( !( other instanceof FragmentText ) ) {
+			return false;
+		}
+		FragmentText text = (FragmentText)other;
+		if ( text.length != length ) {
+			return false;
+		}
+		if ( text.words == words && text.offset == offset ) {
+			return true;
+		}
+		return toString().equals( text.toString() );
+	}
+
+	/**
+	 * Same as the hash code of the String with the same characters.
+	 */
+	@Override
+	public int hashCode() {
+		int h = hash;
+		if ( h == 0 && length > 0 ) {
+			h = toString().hashCode();
+			hash = h;
+		}
+		return h;
+	}
+}
@@ -0,0 +1,85 @@
+package demo.jgoyer;
+
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * <p>
+ * A rule closed over the index of the digit record it acts on. This is the 
+ * closure type produced by the <code>create...</code> functions of 
+ * {@link RulesSetEnglish}; exposing the index lets {@link CompiledRules} drop
+ * rules that cannot apply to a number with fewer digits.
+ * <p>
+ * A rule created this way must leave the list untouched whenever its index is
+ * not less than the size of the list.
+ * 
+ * @author jgoyer1
+ *
+ */
+public final class IndexedRule implements Function<List<DigitRecord>,List<DigitRecord>> {
+	
+	private final BiFunction<List<DigitRecord>,Integer,List<DigitRecord>> rule;
+	private final Integer index;
+	private final String name;
+	
+	/**
+	 * Binds rule to index.
+	 * 
+	 * @param rule Rule taking a list of records and the index of the record to act on.
+	 * @param index Order of magnitude at which the rule acts.
+	 */
+	public IndexedRule( BiFunction<List<DigitRecord>,Integer,List<DigitRecord>> rule, Integer index ) {
+		this( rule, index, "rule" );
+	}
+	
+	/**
+	 * Binds rule to index and names it for reports such as those of {@link RulesInstrumentation}.
+	 * 
+	 * @param rule Rule taking a list of records and the index of the record to act on.
+	 * @param index Order of magnitude at which the rule acts.
+	 * @param name Name of the unbound rule, such as "addDigitName".
+	 */
+	public IndexedRule( BiFunction<List<DigitRecord>,Integer,List<DigitRecord>> rule, Integer index, String name ) {
+		this.rule = rule;
+		this.index = index;
+		this.name = name;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<DigitRecord> apply( List<DigitRecord> recs ) {
+		return rule.apply( recs, index );
+	}
+	
+	/**
+	 * @return Index of the digit record this rule acts on.
+	 */
+	public int getIndex() {
+		return index;
+	}
+	
+	/**
+	 * @return The unbound rule.
+	 */
+	public BiFunction<List<DigitRecord>,Integer,List<DigitRecord>> getRule() {
+		return rule;
+	}
+	
+	/**
+	 * @return Name of the unbound rule.
+	 */
+	public String getName() {
+		return name;
+	}
+	
+	/**
+	 * @return Name and index, such as "addDigitName@3".
+	 */
+	@Override
+	public String toString() {
+		return name + "@" + index;
+	}
+}
@@ -0,0 +1,150 @@
+package demo.jgoyer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable copy of the counters of {@link RulesInstrumentation}. Translation 
+ * counts and histograms are indexed by the number of digits in the input; the
+ * last index covers every longer input.
+ * 
+ * @author jgoyer1
+ *
+ */
+public final class InstrumentationSnapshot {
+	
+	private final List<RuleStats> ruleStats;
+	private final long[] counts;
+	private final long[] nanos;
+	private final long[][] buckets;
+	
+	InstrumentationSnapshot( List<RuleStats> ruleStats, long[] counts, long[] nanos, long[][] buckets ) {
+		List<RuleStats> sorted = new ArrayList<RuleStats>( ruleStats );
+		Collections.sort( sorted, Comparator.comparing( RuleStats::getName ) );
+		this.ruleStats = Collections.unmodifiableList( sorted );
+		this.counts = counts;
+		this.nanos = nanos;
+		this.buckets = buckets;
+	}
+	
+	/**
+	 * @return Counters of every rule run since the last reset, sorted by name.
+	 */
+	public List<RuleStats> getRuleStats() {
+		return ruleStats;
+	}
+	
+	/**
+	 * @param name Rule label, such as "addDigitName@0", or "rule@0#2" for the second rule named "rule@0".
+	 * @return Counters of the rule, or null if it has not run.
+	 */
+	public RuleStats getRuleStats( String name ) {
+		for ( RuleStats stats : ruleStats ) {
+			if ( stats.getName().equals( name ) ) {
+				return stats;
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * @return Number of translations by digit count.
+	 */
+	public long[] getTranslationCounts() {
+		return counts.clone();
+	}
+	
+	/**
+	 * @param digitCount Number of digits in the input.
+	 * @return Mean nanoseconds per translation, or 0 if there were none.
+	 */
+	public double getMeanNanos( int digitCount ) {
+		int digits = clamp( digitCount );
+		return ( counts[ digits ] == 0 ) ? 0.0 : (double)nanos[ digits ] / counts[ digits ];
+	}
+	
+	/**
+	 * @param digitCount Number of digits in the input.
+	 * @return Histogram of translation times: entry b counts times from 2^b to 2^(b+1) - 1 nanoseconds.
+	 */
+	public long[] getHistogram( int digitCount ) {
+		return buckets[ clamp( digitCount ) ].clone();
+	}
+	
+	/**
+	 * @param digitCount Number of digits in the input.
+	 * @param percentile Percentile from 0 to 100.
+	 * @return Upper bound, in nanoseconds, of the bucket holding the percentile, or 0 if there were no translations.
+	 */
+	public long getPercentileNanos( int digitCount, double percentile ) {
+		long[] histogram = buckets[ clamp( digitCount ) ];
+		long total = 0;
+		for ( long count : histogram ) {
+			total += count;
+		}
+		if ( total == 0 ) {
+			return 0;
+		}
+		long rank = (long)Math.ceil( total * percentile / 100.0 );
+		long seen = 0;
+		for ( int bucket = 0; bucket < histogram.length; bucket++ ) {
+			seen += histogram[ bucket ];
+			if ( seen >= rank && histogram[ bucket ] > 0 ) {
+				return ( 1L << ( bucket + 1 ) ) - 1;
+			}
+		}
+		return Long.MAX_VALUE;
+	}
+	
+	private int clamp( int digitCount ) {
+		return Math.max( 0, Math.min( digitCount, counts.length - 1 ) );
+	}
+	
+	/**
+	 * Counters of one rule.
+	 */
+	public static final class RuleStats {
+		private final String name;
+		private final long invocations;
+		private final long noOps;
+		private final long nanos;
+		
+		RuleStats( String name, long invocations, long noOps, long nanos ) {
+			this.name = name;
+			this.invocations = invocations;
+			this.noOps = noOps;
+			this.nanos = nanos;
+		}
+		
+		public String getName() {
+			return name;
+		}
+		
+		/**
+		 * @return Number of times the rule ran.
+		 */
+		public long getInvocations() {
+			return invocations;
+		}
+		
+		/**
+		 * @return Number of runs that left the records untouched because the rule's index was out of range.
+		 */
+		public long getNoOps() {
+			return noOps;
+		}
+		
+		/**
+		 * @return Total nanoseconds spent in the rule.
+		 */
+		public long getNanos() {
+			return nanos;
+		}
+		
+		public String toString() {
+			return name + " invocations: " + invocations + " no-ops: " + noOps + " nanos: " + nanos;
+		}
+	}
+}
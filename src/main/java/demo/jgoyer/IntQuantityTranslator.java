@@ -1,5 +1,11 @@
 package demo.jgoyer;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -21,6 +27,20 @@ import java.util.stream.Collectors;
  * </li><li>
  * Prints the final state of the digit records as a single string.
  * </li></ul> 
+ * <p>
+ * The primitive entry points {@link #translate(int, StringBuilder)} and
+ * {@link #translate(int, Appendable)} produce the same text for the default 
+ * {@link RulesSetEnglish} from precomputed triad fragments, without building 
+ * digit records or boxing the input, and allocate nothing once the destination has enough capacity.
+ * <p>
+ * By default the rules run in {@link TranslationMode#COMPILED} mode, which skips 
+ * rules that cannot apply to the number of digits in the input. Use 
+ * {@link TranslationMode#INTERPRETED} to step through every rule of the list, or
+ * {@link TranslationMode#TRIAD_TABLE} to join precomputed triad fragments instead
+ * of running the English rules.
+ * <p>
+ * An IntQuantityTranslator holds its input and is not safe to share between 
+ * threads. {@link SharedIntTranslator} is an immutable alternative that is.
  * 
  * @author jgoyer1
  *
@@ -29,17 +49,208 @@ public class IntQuantityTranslator extends QuantityTranslator<Integer> {
 	
 	private Integer input = 0;
 	private RulesSet rulesSet = new RulesSetEnglish();  // default
+	private CompiledRules compiledRules = CompiledRules.compile( rulesSet );
+	private TranslationMode mode = TranslationMode.COMPILED;
 	
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
 	public String translate() {	
+		if ( RulesInstrumentation.ENABLED ) {
+			long start = System.nanoTime();
+			String result = translateRecords( input );
+			RulesInstrumentation.get().recordTranslation( RulesInstrumentation.digitCount( Math.abs( (long)input ) ), System.nanoTime() - start );
+			return result;
+		}
+		return translateRecords( input );
+	}
+	
+	/**
+	 * Appends the translation of value to out without changing the input held by
+	 * this translator. With the default {@link RulesSetEnglish} no digit records,
+	 * boxed values or intermediate strings are created; any other rules set runs 
+	 * through the rules pipeline and appends its result.
+	 * 
+	 * @param value Quantity to translate.
+	 * @param out Destination of the translated text.
+	 * @return False, with nothing appended, if value is negative; true otherwise.
+	 */
+	public boolean translate( int value, StringBuilder out ) {
+		try {
+			return translate( value, (Appendable)out );
+		}
+		catch ( IOException e ) {
+			// StringBuilder does not throw
+			throw new UncheckedIOException( e );
+		}
+	}
+	
+	/**
+	 * Appends the translation of value to out without changing the input held by
+	 * this translator. See {@link #translate(int, StringBuilder)}.
+	 * 
+	 * @param value Quantity to translate.
+	 * @param out Destination of the translated text.
+	 * @return False, with nothing appended, if value is negative; true otherwise.
+	 * @throws IOException If out throws.
+	 */
+	public boolean translate( int value, Appendable out ) throws IOException {
+		if ( rulesSet.getClass() == RulesSetEnglish.class ) {
+			return EnglishIntWriter.write( value, out );
+		}
+		String result = translateRecords( value );
+		if ( result == null ) {
+			return false;
+		}
+		out.append( result );
+		return true;
+	}
+	
+	/**
+	 * Puts the translation of value, encoded as UTF-8, into a heap or direct 
+	 * buffer without changing the input held by this translator. With the default 
+	 * {@link RulesSetEnglish}, whose text is ASCII, pre-encoded fragments are 
+	 * copied with no intermediate chars, String or charset encoder; any other 
+	 * rules set runs through the rules pipeline and its result is encoded.
+	 * Nothing is put unless the whole translation fits.
+	 * 
+	 * @param value Quantity to translate.
+	 * @param out Destination buffer.
+	 * @return Number of bytes put, or -1, with nothing put, if value is negative.
+	 * @throws BufferOverflowException If out has too little room; its position is unchanged.
+	 */
+	public int translate( int value, ByteBuffer out ) {
+		if ( rulesSet.getClass() == RulesSetEnglish.class ) {
+			return EnglishIntWriter.write( value, out );
+		}
+		return putUtf8( translateRecords( value ), out );
+	}
+	
+	/**
+	 * Puts text into out encoded as UTF-8. Nothing is put unless all of it fits.
+	 * 
+	 * @return Number of bytes put, or -1 if text is null.
+	 */
+	static int putUtf8( String text, ByteBuffer out ) {
+		if ( text == null ) {
+			return -1;
+		}
+		int length = utf8Length( text );
+		if ( out.remaining() < length ) {
+			throw new BufferOverflowException();
+		}
+		if ( length == text.length() ) {
+			for ( int i = 0; i < length; i++ ) {
+				out.put( (byte)text.charAt( i ) );
+			}
+		}
+		else {
+			out.put( text.getBytes( StandardCharsets.UTF_8 ) );
+		}
+		return length;
+	}
+	
+	/**
+	 * Number of bytes in text encoded as UTF-8. An unpaired surrogate counts as
+	 * one byte, the '?' that String.getBytes puts in its place.
+	 */
+	static int utf8Length( String text ) {
+		int length = 0;
+		for ( int i = 0; i < text.length(); i++ ) {
+			char ch = text.charAt( i );
+			if ( ch < 0x80 ) {
+				length++;
+			}
+			else if ( ch < 0x800 ) {
+				length += 2;
+			}
+			else if ( Character.isHighSurrogate( ch ) && i + 1 < text.length() && Character.isLowSurrogate( text.charAt( i + 1 ) ) ) {
+				length += 4;
+				i++;
+			}
+			else {
+				length += Character.isSurrogate( ch ) ? 1 : 3;
+			}
+		}
+		return length;
+	}
+	
+	/**
+	 * Translates values and returns them packed into a new batch. See 
+	 * {@link #translateBatch(int[], int, int, TranslationBatch)}. With the default
+	 * {@link RulesSetEnglish} the batch is allocated at exactly the size of the 
+	 * translations, so it never grows.
+	 * 
+	 * @param values Quantities to translate.
+	 * @return Batch with one row per value.
+	 */
+	public TranslationBatch translateBatch( int[] values ) {
+		long chars = ( rulesSet.getClass() == RulesSetEnglish.class ) 
+				   ? SharedIntTranslator.english().translatedLength( values ) : 48L * values.length;
+		return translateBatch( values, 0, values.length, new TranslationBatch( values.length, (int)Math.min( chars, TranslationBatch.MAX_LENGTH ) ) );
+	}
+	
+	/**
+	 * Appends one row per value in values[from] to values[to - 1] to a batch. With
+	 * the default {@link RulesSetEnglish} each row is copied from precomputed 
+	 * fragments straight into the batch's character array, so a reused batch
+	 * allocates nothing. The input held by this translator is not changed.
+	 * 
+	 * @param values Quantities to translate.
+	 * @param from Index of the first value, inclusive.
+	 * @param to Index of the last value, exclusive.
+	 * @param into Batch to append to.
+	 * @return The batch.
+	 */
+	public TranslationBatch translateBatch( int[] values, int from, int to, TranslationBatch into ) {
+		for ( int i = from; i < to; i++ ) {
+			into.endRow( translate( values[ i ], into.rowWriter ) );
+		}
+		return into;
+	}
+	
+	/**
+	 * Appends one row per remaining value of a buffer to a batch, advancing the
+	 * buffer's position to its limit. See {@link #translateBatch(int[], int, int, TranslationBatch)}.
+	 * 
+	 * @param values Quantities to translate.
+	 * @param into Batch to append to.
+	 * @return The batch.
+	 */
+	public TranslationBatch translateBatch( IntBuffer values, TranslationBatch into ) {
+		while ( values.hasRemaining() ) {
+			into.endRow( translate( values.get(), into.rowWriter ) );
+		}
+		return into;
+	}
+	
+	/**
+	 * Appends the translation of value to a batch row writer, which does not throw.
+	 */
+	private boolean translate( int value, TranslationBatch.RowWriter out ) {
+		try {
+			return translate( value, (Appendable)out );
+		}
+		catch ( IOException e ) {
+			throw new UncheckedIOException( e );
+		}
+	}
+	
+	private String translateRecords( Integer value ) {
         String result = null;
-		if ( input >= 0 ) {
+		if ( value >= 0 && mode == TranslationMode.TRIAD_TABLE && rulesSet.getClass() == RulesSetEnglish.class ) {
+			StringBuilder out = new StringBuilder( 64 );
+			translate( value, out );
+			result = out.toString();
+		}
+		else if ( value >= 0 && mode != TranslationMode.INTERPRETED ) {
+			result = translateCompiled( value, compiledRules );
+		}
+		else if ( value >= 0 ) {
 		
 			// Reverse String
-			String reversed = new StringBuilder( getInput().toString() ).reverse().toString();
+			String reversed = new StringBuilder( value.toString() ).reverse().toString();
 	
 			// Convert to List of records with state for processing
 			List<DigitRecord> digitRecs = reversed.chars()
@@ -49,10 +260,10 @@ public class IntQuantityTranslator extends QuantityTranslator<Integer> {
 					               .collect( Collectors.toList() );
 			
 			// Get rules list from engine and execute against records
-			rulesSet.getRulesList().stream().forEach( rule -> rule.apply( digitRecs ) );
+			rulesSet.getRulesList().stream().map( RulesInstrumentation::instrument ).forEach( rule -> rule.apply( digitRecs ) );
 			
 			// Return result
-			result = getResultString( digitRecs );
+			result = DigitRecords.print( digitRecs );
 		}
 		return result;
 	}
@@ -68,22 +279,49 @@ public class IntQuantityTranslator extends QuantityTranslator<Integer> {
 	
 	/**
 	 * {@inheritDoc}
+	 * <p>
+	 * The rules list is compiled here, once, for {@link TranslationMode#COMPILED}
+	 * mode; a rules set that changes its list afterwards must be set again.
 	 */
 	@Override
 	public void setRulesSet( RulesSet rulesSet ) {
 		this.rulesSet = rulesSet;
+		this.compiledRules = CompiledRules.compile( rulesSet );
 	}
 	
-	private String getResultString( List<DigitRecord> digitRecs ) {
-		String result = "";
-		for ( int i = digitRecs.size() - 1; i >= 0 ; i-- ) {
-			if ( !digitRecs.get(i).getHide() ) {
-			  result += ( digitRecs.get( i ) );
-		    }
-		}
-	    return result.trim();
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public RulesSet getRulesSet() {
+		return rulesSet;
 	}
-
+	
+	/**
+	 * Selects how the rules set is run. Output does not depend on the mode.
+	 * 
+	 * @param mode Translation mode; the default is {@link TranslationMode#COMPILED}.
+	 * @return This translator to allow chained method calling.
+	 */
+	public IntQuantityTranslator withTranslationMode( TranslationMode mode ) {
+		this.mode = mode;
+		return this;
+	}
+	
+	public TranslationMode getTranslationMode() {
+		return mode;
+	}
+	
+	/**
+	 * Translates a non-negative value by running compiled rules over fresh digit 
+	 * records. Uses no state of its own, so any thread may call it.
+	 */
+	static String translateCompiled( long value, CompiledRules rules ) {
+		List<DigitRecord> digitRecs = DigitRecords.of( value );
+		rules.apply( digitRecs );
+		return DigitRecords.print( digitRecs );
+	}
+	
 	public Integer getInput() {
 		return input;
 	}
@@ -0,0 +1,185 @@
+package demo.jgoyer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Implementation of QuantityTranslator that drives translation of Long
+ * type into strings. Handles range 0 to Long.MAX_VALUE, which reaches the 
+ * quintillions.
+ * <p>
+ * LongQuantityTranslator follows the same algorithm as 
+ * {@link IntQuantityTranslator}: one DigitRecord per digit, pushed through the 
+ * rules list the {@link RulesSet} generates for the number of digits in the
+ * input, and printed in a single pass. The same {@link TranslationMode} values
+ * are supported, and the primitive entry points {@link #translate(long, StringBuilder)}
+ * and {@link #translate(long, Appendable)} allocate nothing for the default 
+ * {@link RulesSetEnglish}.
+ * <p>
+ * A LongQuantityTranslator holds its input and is not safe to share between 
+ * threads.
+ * 
+ * @author jgoyer1
+ *
+ */
+public class LongQuantityTranslator extends QuantityTranslator<Long> {
+	
+	/**
+	 * Number of digits in Long.MAX_VALUE.
+	 */
+	private static final int LONG_DIGITS = 19;
+	
+	private Long input = 0L;
+	private RulesSet rulesSet = new RulesSetEnglish();  // default
+	private CompiledRules compiledRules = CompiledRules.compile( rulesSet, LONG_DIGITS );
+	private TranslationMode mode = TranslationMode.COMPILED;
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String translate() {
+		if ( RulesInstrumentation.ENABLED ) {
+			long start = System.nanoTime();
+			String result = translate( (long)input );
+			RulesInstrumentation.get().recordTranslation( RulesInstrumentation.digitCount( Math.abs( input ) ), System.nanoTime() - start );
+			return result;
+		}
+		return translate( (long)input );
+	}
+	
+	private String translate( long value ) {
+		if ( value < 0 ) {
+			return null;
+		}
+		if ( mode == TranslationMode.TRIAD_TABLE && rulesSet.getClass() == RulesSetEnglish.class ) {
+			StringBuilder out = new StringBuilder( 128 );
+			translate( value, out );
+			return out.toString();
+		}
+		List<DigitRecord> digitRecs = DigitRecords.of( value );
+		if ( mode == TranslationMode.INTERPRETED ) {
+			rulesSet.getRulesList( digitRecs.size() ).stream().map( RulesInstrumentation::instrument ).forEach( rule -> rule.apply( digitRecs ) );
+		}
+		else {
+			compiledRules.apply( digitRecs );
+		}
+		return DigitRecords.print( digitRecs );
+	}
+	
+	/**
+	 * Appends the translation of value to out without changing the input held by
+	 * this translator. With the default {@link RulesSetEnglish} no digit records,
+	 * boxed values or intermediate strings are created; any other rules set runs 
+	 * through the rules pipeline and appends its result.
+	 * 
+	 * @param value Quantity to translate.
+	 * @param out Destination of the translated text.
+	 * @return False, with nothing appended, if value is negative; true otherwise.
+	 */
+	public boolean translate( long value, StringBuilder out ) {
+		try {
+			return translate( value, (Appendable)out );
+		}
+		catch ( IOException e ) {
+			// StringBuilder does not throw
+			throw new UncheckedIOException( e );
+		}
+	}
+	
+	/**
+	 * Appends the translation of value to out without changing the input held by
+	 * this translator. See {@link #translate(long, StringBuilder)}.
+	 * 
+	 * @param value Quantity to translate.
+	 * @param out Destination of the translated text.
+	 * @return False, with nothing appended, if value is negative; true otherwise.
+	 * @throws IOException If out throws.
+	 */
+	public boolean translate( long value, Appendable out ) throws IOException {
+		if ( rulesSet.getClass() == RulesSetEnglish.class ) {
+			return EnglishIntWriter.write( value, out );
+		}
+		if ( value < 0 ) {
+			return false;
+		}
+		out.append( IntQuantityTranslator.translateCompiled( value, compiledRules ) );
+		return true;
+	}
+	
+	/**
+	 * Puts the translation of value, encoded as UTF-8, into a heap or direct 
+	 * buffer without changing the input held by this translator. See 
+	 * {@link IntQuantityTranslator#translate(int, ByteBuffer)}.
+	 * 
+	 * @param value Quantity to translate.
+	 * @param out Destination buffer.
+	 * @return Number of bytes put, or -1, with nothing put, if value is negative.
+	 * @throws BufferOverflowException If out has too little room; its position is unchanged.
+	 */
+	public int translate( long value, ByteBuffer out ) {
+		if ( rulesSet.getClass() == RulesSetEnglish.class ) {
+			return EnglishIntWriter.write( value, out );
+		}
+		if ( value < 0 ) {
+			return -1;
+		}
+		return IntQuantityTranslator.putUtf8( 
+				IntQuantityTranslator.translateCompiled( value, compiledRules ), out );
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public LongQuantityTranslator withInput( Long input ) {
+		this.input = input;
+		return this;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The rules list for the longest long is compiled here, once; a rules set 
+	 * that changes its lists afterwards must be set again.
+	 */
+	@Override
+	public void setRulesSet( RulesSet rulesSet ) {
+		this.rulesSet = rulesSet;
+		this.compiledRules = CompiledRules.compile( rulesSet, LONG_DIGITS );
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public RulesSet getRulesSet() {
+		return rulesSet;
+	}
+	
+	/**
+	 * Selects how the rules set is run. Output does not depend on the mode.
+	 * 
+	 * @param mode Translation mode; the default is {@link TranslationMode#COMPILED}.
+	 * @return This translator to allow chained method calling.
+	 */
+	public LongQuantityTranslator withTranslationMode( TranslationMode mode ) {
+		this.mode = mode;
+		return this;
+	}
+	
+	public TranslationMode getTranslationMode() {
+		return mode;
+	}
+
+	public Long getInput() {
+		return input;
+	}
+
+	public void setInput(Long input) {
+		this.input = input;
+	}
+}
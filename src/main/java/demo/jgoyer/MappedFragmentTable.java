@@ -0,0 +1,279 @@
+package demo.jgoyer;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * <p>
+ * Translation tables kept in a file and memory-mapped read-only, so that every
+ * JVM on a host reads the same pages of the page cache and a new JVM can
+ * translate at once, without building any table of its own. The file holds the
+ * pre-encoded ASCII fragment of each triad value, which covers the digit, teen
+ * and tens names, the name of zero and the scale words, with an offset index.
+ * </p><p>
+ * Layout, big-endian:
+ * </p>
+ * <pre>
+ * int    magic "QTFT"
+ * int    format version
+ * int    CRC32 of every byte after this header
+ * int    number of entries, n
+ * short  locale length, then the locale in ASCII
+ * int    n + 1 offsets of the entries into the data, the last being its length
+ * byte   data: the triads 0 to 999, zero, then the scale words of groups 1 up
+ * </pre>
+ * <p>
+ * Example:
+ * </p><p>
+ * <code>
+ * MappedFragmentTable.writeEnglish( path );   // once, by any process
+ * MappedFragmentTable table = MappedFragmentTable.open( path );
+ * table.translate( 314, buffer );
+ * </code>
+ * </p><p>
+ * The text is that of {@link LongQuantityTranslator} with {@link RulesSetEnglish}.
+ * A table only reads the mapping with absolute gets, so any number of threads
+ * may share it. The mapping is released when the table is garbage collected.
+ * </p>
+ *
+ * @author jgoyer1
+ *
+ */
+public final class MappedFragmentTable {
+
+	static final int MAGIC = 0x51544654;  // "QTFT"
+	static final int VERSION = 1;
+
+	private static final int HEADER = 16;
+	private static final int TRIADS = 1000;
+	private static final int ZERO_ENTRY = TRIADS;
+	private static final int SCALE_ENTRY = TRIADS + 1;  // scale word of group 1
+	private static final int ENTRIES = SCALE_ENTRY + TriadTableEnglish.GROUPS - 1;
+
+	private final ByteBuffer mapped;
+	private final String locale;
+
+	/**
+	 * Offset of the entry offsets in the mapping.
+	 */
+	private final int indexStart;
+	private final int dataStart;
+
+	private MappedFragmentTable( ByteBuffer mapped, String locale, int indexStart, int dataStart ) {
+		this.mapped = mapped;
+		this.locale = locale;
+		this.indexStart = indexStart;
+		this.dataStart = dataStart;
+	}
+
+	/**
+	 * Writes the English tables of {@link TriadTableEnglish} to file. The file
+	 * is written under a temporary name and moved into place, so a process
+	 * opening it never sees it half written.
+	 *
+	 * @param file File to create or replace.
+	 * @throws IOException If the file cannot be written.
+	 */
+	public static void writeEnglish( Path file ) throws IOException {
+		byte[][] entries = new byte[ ENTRIES ][];
+		for ( int triad = 0; triad < TRIADS; triad++ ) {
+			entries[ triad ] = TriadTableEnglish.triadBytes( triad );
+		}
+		entries[ ZERO_ENTRY ] = TriadTableEnglish.ZERO_BYTES;
+		for ( int group = 1; group < TriadTableEnglish.GROUPS; group++ ) {
+			entries[ SCALE_ENTRY + group - 1 ] = TriadTableEnglish.scaleBytes( group );
+		}
+		write( file, "en", entries );
+	}
+
+	private static void write( Path file, String locale, byte[][] entries ) throws IOException {
+		byte[] localeBytes = locale.getBytes( StandardCharsets.US_ASCII );
+		int dataLength = 0;
+		for ( byte[] entry : entries ) {
+			dataLength += entry.length;
+		}
+		ByteBuffer out = ByteBuffer.allocate( HEADER + 2 + localeBytes.length + 4 * ( entries.length + 1 ) + dataLength );
+		out.position( HEADER );
+		out.putShort( (short)localeBytes.length ).put( localeBytes );
+		int offset = 0;
+		for ( byte[] entry : entries ) {
+			out.putInt( offset );
+			offset += entry.length;
+		}
+		out.putInt( offset );
+		for ( byte[] entry : entries ) {
+			out.put( entry );
+		}
+
+		CRC32 crc = new CRC32();
+		crc.update( out.array(), HEADER, out.capacity() - HEADER );
+		out.putInt( 0, MAGIC ).putInt( 4, VERSION ).putInt( 8, (int)crc.getValue() ).putInt( 12, entries.length );
+
+		Path temp = Files.createTempFile( file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp" );
+		try {
+			Files.write( temp, out.array() );
+			Files.move( temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+		}
+		finally {
+			Files.deleteIfExists( temp );
+		}
+	}
+
+	/**
+	 * Maps a table file read-only and checks its format version and checksum.
+	 *
+	 * @param file File written by {@link #writeEnglish(Path)}.
+	 * @return The table.
+	 * @throws IOException If the file cannot be read, or is not a valid table of this version.
+	 */
+	public static MappedFragmentTable open( Path file ) throws IOException {
+		ByteBuffer mapped;
+		try ( FileChannel channel = FileChannel.open( file, StandardOpenOption.READ ) ) {
+			if ( channel.size() < HEADER || channel.size() > Integer.MAX_VALUE ) {
+				throw new IOException( file + ": not a fragment table" );
+			}
+			mapped = channel.map( FileChannel.MapMode.READ_ONLY, 0, channel.size() );
+		}
+
+		if ( mapped.getInt( 0 ) != MAGIC ) {
+			throw new IOException( file + ": not a fragment table" );
+		}
+		if ( mapped.getInt( 4 ) != VERSION ) {
+			throw new IOException( file + ": format version " + mapped.getInt( 4 ) + ", expected " + VERSION );
+		}
+		CRC32 crc = new CRC32();
+		ByteBuffer body = mapped.duplicate();
+		body.position( HEADER );
+		crc.update( body );
+		if ( (int)crc.getValue() != mapped.getInt( 8 ) ) {
+			throw new IOException( file + ": checksum mismatch" );
+		}
+		if ( mapped.getInt( 12 ) != ENTRIES ) {
+			throw new IOException( file + ": " + mapped.getInt( 12 ) + " entries, expected " + ENTRIES );
+		}
+
+		int localeLength = mapped.getShort( HEADER );
+		byte[] localeBytes = new byte[ localeLength ];
+		for ( int i = 0; i < localeLength; i++ ) {
+			localeBytes[ i ] = mapped.get( HEADER + 2 + i );
+		}
+		int indexStart = HEADER + 2 + localeLength;
+		int dataStart = indexStart + 4 * ( ENTRIES + 1 );
+		if ( dataStart + mapped.getInt( dataStart - 4 ) != mapped.capacity() ) {
+			throw new IOException( file + ": index does not match the file length" );
+		}
+		return new MappedFragmentTable( mapped, new String( localeBytes, StandardCharsets.US_ASCII ), indexStart, dataStart );
+	}
+
+	/**
+	 * @return Locale of the table, such as "en".
+	 */
+	public String getLocale() {
+		return locale;
+	}
+
+	/**
+	 * Puts the translation of value, encoded as ASCII, into out. Nothing is put
+	 * unless the whole translation fits.
+	 *
+	 * @param value Quantity to translate.
+	 * @param out Destination buffer, heap or direct.
+	 * @return Number of bytes put, or -1, with nothing put, if value is negative.
+	 * @throws BufferOverflowException If out has too little room; its position is unchanged.
+	 */
+	public int translate( long value, ByteBuffer out ) {
+		if ( value < 0 ) {
+			return -1;
+		}
+		int length = length( value );
+		if ( out.remaining() < length ) {
+			throw new BufferOverflowException();
+		}
+		if ( value == 0 ) {
+			putEntry( ZERO_ENTRY, out );
+			return length;
+		}
+		// Split arithmetically, so that no other table is loaded
+		int groups = 1;
+		long divisor = 1;
+		while ( groups < TriadTableEnglish.GROUPS && value / divisor >= 1000 ) {
+			divisor *= 1000;
+			groups++;
+		}
+		boolean first = true;
+		for ( int group = groups - 1; group >= 0; group--, divisor /= 1000 ) {
+			int triad = (int)( ( value / divisor ) % 1000 );
+			if ( triad != 0 ) {
+				if ( !first ) {
+					out.put( (byte)' ' );
+				}
+				putEntry( triad, out );
+				if ( group > 0 ) {
+					out.put( (byte)' ' );
+					putEntry( SCALE_ENTRY + group - 1, out );
+				}
+				first = false;
+			}
+		}
+		return length;
+	}
+
+	/**
+	 * Translates value into a String.
+	 *
+	 * @param value Quantity to translate.
+	 * @return Translated text, or null if value is negative.
+	 */
+	public String translate( long value ) {
+		if ( value < 0 ) {
+			return null;
+		}
+		ByteBuffer out = ByteBuffer.allocate( length( value ) );
+		translate( value, out );
+		return new String( out.array(), StandardCharsets.US_ASCII );
+	}
+
+	/**
+	 * @param value Non-negative quantity.
+	 * @return Number of bytes in the translation of value.
+	 */
+	public int length( long value ) {
+		if ( value == 0 ) {
+			return entryLength( ZERO_ENTRY );
+		}
+		int length = -1;  // no separator before the first triad
+		for ( int group = 0; value != 0; group++ ) {
+			int triad = (int)( value % 1000 );
+			value /= 1000;
+			if ( triad != 0 ) {
+				length += 1 + entryLength( triad );
+				if ( group > 0 ) {
+					length += 1 + entryLength( SCALE_ENTRY + group - 1 );
+				}
+			}
+		}
+		return length;
+	}
+
+	private int entryLength( int entry ) {
+		int index = indexStart + 4 * entry;
+		return mapped.getInt( index + 4 ) - mapped.getInt( index );
+	}
+
+	private void putEntry( int entry, ByteBuffer out ) {
+		int index = indexStart + 4 * entry;
+		int from = dataStart + mapped.getInt( index );
+		int to = dataStart + mapped.getInt( index + 4 );
+		for ( int i = from; i < to; i++ ) {
+			out.put( mapped.get( i ) );
+		}
+	}
+}
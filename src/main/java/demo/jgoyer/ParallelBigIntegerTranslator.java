@@ -0,0 +1,159 @@
+package demo.jgoyer;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * <p>
+ * Translates a single huge BigInteger, of hundreds of thousands of digits, on
+ * a {@link ForkJoinPool}. The value is never converted to decimal as a whole:
+ * it is divided by 1000 to the power 2<sup>k</sup>, with k chosen so that the
+ * quotient and remainder are of similar size, and the two parts are translated
+ * in parallel, the quotient with its groups shifted up by 2<sup>k</sup>. Parts
+ * small enough for a quick toString() are joined from the fragments and scale
+ * words of {@link TriadTableEnglish}, each into a text of its own, and the
+ * texts are stitched together in order once at the end.
+ * </p><p>
+ * Example:
+ * </p><p>
+ * <code>
+ * String text = ParallelBigIntegerTranslator.translate( BigInteger.TEN.pow( 300000 ).subtract( BigInteger.ONE ) );
+ * </code>
+ * </p><p>
+ * The text is that of {@link BigIntegerQuantityTranslator} with
+ * {@link RulesSetEnglish}. The powers of 1000 used as divisors are computed
+ * once and shared by every translation.
+ * </p>
+ *
+ * @author jgoyer1
+ *
+ */
+public final class ParallelBigIntegerTranslator {
+
+	/**
+	 * Largest part, in bits, translated by a single task: about 4900 digits. The
+	 * decimal conversion of the JDK is fast up to this size, and a value of a
+	 * hundred thousand digits still splits into about twenty tasks.
+	 */
+	private static final int LEAF_BITS = 1 << 14;
+
+	private static final BigInteger THOUSAND = BigInteger.valueOf( 1000 );
+
+	/**
+	 * Entry k is 1000 to the power 2<sup>k</sup>. Grown under the class lock.
+	 */
+	private static volatile BigInteger[] powers = { THOUSAND };
+
+	private ParallelBigIntegerTranslator() {
+	}
+
+	/**
+	 * Translates value on the common pool.
+	 *
+	 * @param value Quantity to translate.
+	 * @return Translated text, or null if value is negative.
+	 */
+	public static String translate( BigInteger value ) {
+		return translate( value, ForkJoinPool.commonPool() );
+	}
+
+	/**
+	 * Translates value on the given pool.
+	 *
+	 * @param value Quantity to translate.
+	 * @param pool Pool to run on.
+	 * @return Translated text, or null if value is negative.
+	 */
+	public static String translate( BigInteger value, ForkJoinPool pool ) {
+		if ( value.signum() < 0 ) {
+			return null;
+		}
+		if ( value.signum() == 0 ) {
+			return TriadTableEnglish.ZERO;
+		}
+		List<StringBuilder> pieces = pool.invoke( new PartTask( value, 0 ) );
+		int length = pieces.size() - 1;
+		for ( StringBuilder piece : pieces ) {
+			length += piece.length();
+		}
+		StringBuilder out = new StringBuilder( length );
+		for ( StringBuilder piece : pieces ) {
+			if ( out.length() > 0 ) {
+				out.append( ' ' );
+			}
+			out.append( piece );
+		}
+		return out.toString();
+	}
+
+	/**
+	 * @param k Exponent.
+	 * @return 1000 to the power 2<sup>k</sup>.
+	 */
+	static BigInteger power( int k ) {
+		BigInteger[] known = powers;
+		if ( k < known.length ) {
+			return known[ k ];
+		}
+		synchronized ( ParallelBigIntegerTranslator.class ) {
+			known = powers;
+			if ( k >= known.length ) {
+				BigInteger[] grown = new BigInteger[ k + 1 ];
+				System.arraycopy( known, 0, grown, 0, known.length );
+				for ( int i = known.length; i <= k; i++ ) {
+					grown[ i ] = grown[ i - 1 ].multiply( grown[ i - 1 ] );
+				}
+				powers = grown;
+				known = grown;
+			}
+			return known[ k ];
+		}
+	}
+
+	/**
+	 * Translates a non-negative part whose lowest group is groupOffset, returning
+	 * the texts of its non-zero leaves, most significant first.
+	 */
+	private static final class PartTask extends RecursiveTask<List<StringBuilder>> {
+		private static final long serialVersionUID = 1L;
+
+		private final BigInteger value;
+		private final int groupOffset;
+
+		PartTask( BigInteger value, int groupOffset ) {
+			this.value = value;
+			this.groupOffset = groupOffset;
+		}
+
+		@Override
+		protected List<StringBuilder> compute() {
+			List<StringBuilder> pieces = new ArrayList<StringBuilder>();
+			if ( value.signum() == 0 ) {
+				return pieces;
+			}
+			if ( value.bitLength() <= LEAF_BITS ) {
+				String decimal = value.toString();
+				StringBuilder piece = new StringBuilder( 12 * decimal.length() );
+				BigIntegerQuantityTranslator.appendTriads( decimal, groupOffset, piece );
+				pieces.add( piece );
+				return pieces;
+			}
+
+			// Split near the middle: the divisor has at most half the bits of value
+			int k = 0;
+			while ( power( k + 1 ).bitLength() <= ( value.bitLength() + 1 ) / 2 ) {
+				k++;
+			}
+			BigInteger[] parts = value.divideAndRemainder( power( k ) );
+			PartTask high = new PartTask( parts[ 0 ], groupOffset + ( 1 << k ) );
+			high.fork();
+			List<StringBuilder> low = new PartTask( parts[ 1 ], groupOffset ).compute();
+			pieces.addAll( high.join() );
+			pieces.addAll( low );
+			return pieces;
+		}
+	}
+}
@@ -0,0 +1,187 @@
+package demo.jgoyer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * <p>
+ * Translates arrays of int quantities on a {@link ForkJoinPool}, keeping the 
+ * results in input order. Work is done by a {@link SharedIntTranslator}, which 
+ * is safe to call from every worker at once.
+ * <p>
+ * The input is split in halves until a piece is cheap enough to translate in 
+ * one task. The cost of a piece is estimated from a sample of its values, since
+ * a ten-digit value costs several times a one-digit value, and splitting stops
+ * early when the worker already has surplus queued tasks that idle workers have
+ * not stolen. Small or cheap inputs therefore run in few tasks, while large
+ * inputs of long values spread across every core.
+ * </p><p>
+ * Example:
+ * </p><p>
+ * <code>
+ * String[] names = ParallelTranslator.english().translateAll( amounts, ForkJoinPool.commonPool() );
+ * </code>
+ * </p>
+ * 
+ * @author jgoyer1
+ *
+ */
+public final class ParallelTranslator {
+	
+	/**
+	 * Estimated cost, in triads, of a piece translated by a single task. About a
+	 * tenth of a millisecond of work, which keeps task overhead negligible.
+	 */
+	private static final long LEAF_COST = 4096;
+	
+	/**
+	 * Number of values sampled to estimate the cost of a piece.
+	 */
+	private static final int SAMPLES = 8;
+	
+	private static final ParallelTranslator ENGLISH = new ParallelTranslator( SharedIntTranslator.english() );
+	
+	private final SharedIntTranslator translator;
+	
+	/**
+	 * @param translator Translator run by every worker.
+	 */
+	public ParallelTranslator( SharedIntTranslator translator ) {
+		this.translator = translator;
+	}
+	
+	/**
+	 * @return Parallel translator for {@link RulesSetEnglish}.
+	 */
+	public static ParallelTranslator english() {
+		return ENGLISH;
+	}
+	
+	/**
+	 * Translates every value in parallel.
+	 * 
+	 * @param values Quantities to translate.
+	 * @param pool Pool to run on.
+	 * @return Translations in input order; null where a value is negative.
+	 */
+	public String[] translateAll( final int[] values, ForkJoinPool pool ) {
+		final String[] results = new String[ values.length ];
+		pool.invoke( new StringsTask( values, results, 0, values.length ) );
+		return results;
+	}
+	
+	/**
+	 * Translates every value in parallel into one packed batch. Each task fills a 
+	 * batch of its own and the pieces are copied once, in input order, into the
+	 * result.
+	 * 
+	 * @param values Quantities to translate.
+	 * @param pool Pool to run on.
+	 * @return Batch with one row per value, in input order.
+	 * @throws IllegalStateException If the translations add up to more characters than a batch holds.
+	 */
+	public TranslationBatch translateAllPacked( int[] values, ForkJoinPool pool ) {
+		List<TranslationBatch> pieces = pool.invoke( new BatchTask( values, 0, values.length ) );
+		long chars = 0;
+		for ( TranslationBatch piece : pieces ) {
+			chars += piece.charCount();
+		}
+		TranslationBatch result = new TranslationBatch( values.length, TranslationBatch.checkLength( chars, "characters" ) );
+		for ( TranslationBatch piece : pieces ) {
+			result.addAll( piece );
+		}
+		return result;
+	}
+	
+	/**
+	 * Returns true if a piece should be translated by the current task rather
+	 * than split further.
+	 */
+	private static boolean isLeaf( int[] values, int from, int to ) {
+		int count = to - from;
+		if ( count <= 1 || ForkJoinTask.getSurplusQueuedTaskCount() > 3 ) {
+			return true;
+		}
+		int step = Math.max( 1, count / SAMPLES );
+		int sampled = 0;
+		long cost = 0;
+		for ( int i = from; i < to && sampled < SAMPLES; i += step, sampled++ ) {
+			cost += ( values[ i ] < 0 ) ? 1 : TriadTableEnglish.groupCount( values[ i ] );
+		}
+		return cost * count / sampled <= LEAF_COST;
+	}
+	
+	private final class StringsTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		
+		private final int[] values;
+		private final String[] results;
+		private final int from;
+		private final int to;
+		
+		StringsTask( int[] values, String[] results, int from, int to ) {
+			this.values = values;
+			this.results = results;
+			this.from = from;
+			this.to = to;
+		}
+		
+		@Override
+		protected void compute() {
+			if ( isLeaf( values, from, to ) ) {
+				for ( int i = from; i < to; i++ ) {
+					results[ i ] = translator.translate( values[ i ] );
+				}
+				return;
+			}
+			int middle = ( from + to ) >>> 1;
+			invokeAll( new StringsTask( values, results, from, middle ), 
+					   new StringsTask( values, results, middle, to ) );
+		}
+	}
+	
+	private final class BatchTask extends RecursiveTask<List<TranslationBatch>> {
+		private static final long serialVersionUID = 1L;
+		
+		private final int[] values;
+		private final int from;
+		private final int to;
+		
+		BatchTask( int[] values, int from, int to ) {
+			this.values = values;
+			this.from = from;
+			this.to = to;
+		}
+		
+		@Override
+		protected List<TranslationBatch> compute() {
+			if ( isLeaf( values, from, to ) ) {
+				TranslationBatch batch = new TranslationBatch( to - from, (int)Math.min( 48L * ( to - from ), TranslationBatch.MAX_LENGTH ) );
+				try {
+					for ( int i = from; i < to; i++ ) {
+						batch.endRow( translator.translate( values[ i ], batch.rowWriter ) );
+					}
+				}
+				catch ( IOException e ) {
+					// Batch rows do not throw
+					throw new UncheckedIOException( e );
+				}
+				List<TranslationBatch> pieces = new ArrayList<TranslationBatch>();
+				pieces.add( batch );
+				return pieces;
+			}
+			int middle = ( from + to ) >>> 1;
+			BatchTask high = new BatchTask( values, middle, to );
+			high.fork();
+			List<TranslationBatch> pieces = new BatchTask( values, from, middle ).compute();
+			pieces.addAll( high.join() );
+			return pieces;
+		}
+	}
+}
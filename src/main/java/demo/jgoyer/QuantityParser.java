@@ -0,0 +1,285 @@
+package demo.jgoyer;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Immutable, thread-safe parser of English quantity words back into numbers; the
+ * counterpart of {@link QuantityTranslator}. It accepts exactly the text that
+ * {@link RulesSetEnglish} produces, so for every non-negative value
+ * <code>parseLong( translate( value ) ) == value</code>.
+ * </p><p>
+ * Example:
+ * </p><p>
+ * <code>
+ * QuantityParser parser = QuantityParser.english();
+ * System.out.println( parser.parseInt( "fifteen thousand three hundred twenty-one" ) );
+ * </code>
+ * </p><p>
+ * prints 15321.
+ * </p><p>
+ * Grammar: "zero", or one or more groups in descending order of scale, each a
+ * non-zero triad followed by its scale word ("thousand", "million", ...), the
+ * units group having none. A triad is an optional digit name followed by
+ * "hundred", then optionally a digit name, a teen, a multiple of ten, or a
+ * multiple of ten, a hyphen and a digit name. Words are lower case and
+ * separated by exactly one space. Anything else, including "and", extra
+ * spaces, "twenty one" or "zero thousand", is rejected.
+ * </p><p>
+ * Words are matched by walking a trie built from {@link DigitMapEnglish} one
+ * character at a time, so parsing allocates nothing unless the input is invalid.
+ * </p>
+ *
+ * @author jgoyer1
+ *
+ */
+public final class QuantityParser {
+
+	private static final QuantityParser ENGLISH = new QuantityParser();
+
+	private static final int LETTERS = 26;
+
+	// Word codes: 0 to 90 are the value of a digit, teen or multiple of ten name
+	private static final int NONE = -1;
+	private static final int HUNDRED = 100;
+	private static final int SCALE = 1000;  // plus the group index
+
+	/**
+	 * Largest group whose scale word can appear in a long.
+	 */
+	private static final int LONG_GROUPS = 6;
+
+	private static final long[] GROUP_POWERS = new long[ LONG_GROUPS + 1 ];
+
+	static {
+		GROUP_POWERS[ 0 ] = 1;
+		for ( int group = 1; group <= LONG_GROUPS; group++ ) {
+			GROUP_POWERS[ group ] = GROUP_POWERS[ group - 1 ] * 1000;
+		}
+	}
+
+	// Parser states
+	private static final int START = 0;         // expecting the first word of a triad
+	private static final int AFTER_DIGIT = 1;   // a digit name that "hundred" or a scale may follow
+	private static final int AFTER_HUNDRED = 2;
+	private static final int AFTER_TENS = 3;    // a multiple of ten that a hyphen may follow
+	private static final int AFTER_TAIL = 4;    // the triad is complete
+	private static final int AFTER_SCALE = 5;
+
+	/**
+	 * Trie over 'a' to 'z': the child of node n for letter c is next[ n * 26 + c ],
+	 * 0 meaning none since the root is no node's child.
+	 */
+	private int[] next = new int[ 64 * LETTERS ];
+	private int[] codes = new int[ 64 ];
+	private int nodeCount = 1;
+
+	private QuantityParser() {
+		codes[ 0 ] = NONE;
+		for ( int value = 0; value < 100; value++ ) {
+			String name = DigitMapEnglish.nameOf( value );
+			if ( name != null ) {
+				add( name, value );
+			}
+		}
+		add( DigitMapEnglish.nameOf( 100 ), HUNDRED );
+		for ( int group = 1; group <= LONG_GROUPS; group++ ) {
+			add( DigitMapEnglish.scaleName( group ), SCALE + group );
+		}
+	}
+
+	/**
+	 * @return Shared parser for the English produced by {@link RulesSetEnglish}.
+	 */
+	public static QuantityParser english() {
+		return ENGLISH;
+	}
+
+	private void add( String word, int code ) {
+		int node = 0;
+		for ( int i = 0; i < word.length(); i++ ) {
+			int slot = node * LETTERS + ( word.charAt( i ) - 'a' );
+			if ( next[ slot ] == 0 ) {
+				if ( nodeCount == codes.length ) {
+					next = Arrays.copyOf( next, 2 * next.length );
+					codes = Arrays.copyOf( codes, 2 * codes.length );
+				}
+				codes[ nodeCount ] = NONE;
+				next[ slot ] = nodeCount++;
+			}
+			node = next[ slot ];
+		}
+		codes[ node ] = code;
+	}
+
+	/**
+	 * Parses English quantity words into an int.
+	 *
+	 * @param text Words, such as "twenty-one thousand".
+	 * @return Quantity the words name.
+	 * @throws NumberFormatException If text is not a translation of a value from 0 to Integer.MAX_VALUE.
+	 */
+	public int parseInt( CharSequence text ) {
+		return toInt( parse( text, null, 0, text.length() ), text, null );
+	}
+
+	/**
+	 * Parses English quantity words into a long.
+	 *
+	 * @param text Words, such as "nine quintillion".
+	 * @return Quantity the words name.
+	 * @throws NumberFormatException If text is not a translation of a value from 0 to Long.MAX_VALUE.
+	 */
+	public long parseLong( CharSequence text ) {
+		return parse( text, null, 0, text.length() );
+	}
+
+	/**
+	 * Parses ASCII-encoded English quantity words, between the position and limit
+	 * of a heap or direct buffer, into an int. The buffer's position is unchanged.
+	 *
+	 * @param text Encoded words.
+	 * @return Quantity the words name.
+	 * @throws NumberFormatException If text is not a translation of a value from 0 to Integer.MAX_VALUE.
+	 */
+	public int parseInt( ByteBuffer text ) {
+		return toInt( parse( null, text, text.position(), text.limit() ), null, text );
+	}
+
+	/**
+	 * Parses ASCII-encoded English quantity words, between the position and limit
+	 * of a heap or direct buffer, into a long. The buffer's position is unchanged.
+	 *
+	 * @param text Encoded words.
+	 * @return Quantity the words name.
+	 * @throws NumberFormatException If text is not a translation of a value from 0 to Long.MAX_VALUE.
+	 */
+	public long parseLong( ByteBuffer text ) {
+		return parse( null, text, text.position(), text.limit() );
+	}
+
+	private static int toInt( long value, CharSequence chars, ByteBuffer bytes ) {
+		if ( value > Integer.MAX_VALUE ) {
+			throw invalid( chars, bytes, "out of int range" );
+		}
+		return (int)value;
+	}
+
+	/**
+	 * Parses from chars if it is not null, otherwise from bytes, between from and to.
+	 */
+	private long parse( CharSequence chars, ByteBuffer bytes, int from, int to ) {
+		long total = 0;
+		int triad = 0;
+		int state = START;
+		int lastGroup = Integer.MAX_VALUE;
+		char separator = ' ';
+
+		int i = from;
+		while ( true ) {
+			// Walk the trie to the end of the word
+			int node = 0;
+			int start = i;
+			while ( i < to ) {
+				int ch = ( chars != null ) ? chars.charAt( i ) : ( bytes.get( i ) & 0xff );
+				if ( ch == ' ' || ch == '-' ) {
+					break;
+				}
+				int letter = ch - 'a';
+				if ( letter < 0 || letter >= LETTERS || ( node = next[ node * LETTERS + letter ] ) == 0 ) {
+					throw invalid( chars, bytes, "unknown word at " + ( start - from ) );
+				}
+				i++;
+			}
+			int code = codes[ node ];
+			if ( i == start || code == NONE ) {
+				throw invalid( chars, bytes, "unknown word at " + ( start - from ) );
+			}
+
+			if ( separator == '-' && ( state != AFTER_TENS || code < 1 || code > 9 ) ) {
+				throw invalid( chars, bytes, "unexpected hyphen at " + ( start - from - 1 ) );
+			}
+			if ( code == 0 ) {
+				// "zero" stands alone
+				if ( start != from || i != to ) {
+					throw invalid( chars, bytes, "zero in a larger quantity" );
+				}
+				return 0;
+			}
+			else if ( code < 10 ) {
+				if ( state == START || state == AFTER_SCALE ) {
+					state = AFTER_DIGIT;
+				}
+				else if ( state == AFTER_HUNDRED || ( state == AFTER_TENS && separator == '-' ) ) {
+					state = AFTER_TAIL;
+				}
+				else {
+					throw invalid( chars, bytes, "unexpected digit name at " + ( start - from ) );
+				}
+				triad += code;
+			}
+			else if ( code < HUNDRED ) {
+				if ( state != START && state != AFTER_SCALE && state != AFTER_HUNDRED ) {
+					throw invalid( chars, bytes, "unexpected word at " + ( start - from ) );
+				}
+				state = ( code < 20 ) ? AFTER_TAIL : AFTER_TENS;
+				triad += code;
+			}
+			else if ( code == HUNDRED ) {
+				if ( state != AFTER_DIGIT ) {
+					throw invalid( chars, bytes, "unexpected hundred at " + ( start - from ) );
+				}
+				state = AFTER_HUNDRED;
+				triad *= 100;
+			}
+			else {
+				int group = code - SCALE;
+				if ( triad == 0 || group >= lastGroup ) {
+					throw invalid( chars, bytes, "unexpected scale at " + ( start - from ) );
+				}
+				try {
+					total = Math.addExact( total, Math.multiplyExact( triad, GROUP_POWERS[ group ] ) );
+				}
+				catch ( ArithmeticException e ) {
+					throw invalid( chars, bytes, "out of long range" );
+				}
+				state = AFTER_SCALE;
+				lastGroup = group;
+				triad = 0;
+			}
+
+			if ( i == to ) {
+				break;
+			}
+			separator = ( chars != null ) ? chars.charAt( i ) : (char)( bytes.get( i ) & 0xff );
+			if ( ++i == to ) {
+				throw invalid( chars, bytes, "trailing separator" );
+			}
+		}
+		if ( state == START ) {
+			throw invalid( chars, bytes, "empty" );
+		}
+		try {
+			return Math.addExact( total, triad );
+		}
+		catch ( ArithmeticException e ) {
+			throw invalid( chars, bytes, "out of long range" );
+		}
+	}
+
+	private static NumberFormatException invalid( CharSequence chars, ByteBuffer bytes, String reason ) {
+		String text;
+		if ( chars != null ) {
+			text = chars.toString();
+		}
+		else {
+			StringBuilder decoded = new StringBuilder();
+			for ( int i = bytes.position(); i < bytes.limit(); i++ ) {
+				decoded.append( (char)( bytes.get( i ) & 0xff ) );
+			}
+			text = decoded.toString();
+		}
+		return new NumberFormatException( "For input string: \"" + text + "\": " + reason );
+	}
+}
@@ -3,7 +3,9 @@ package demo.jgoyer;
 /**
  * Takes an instance of type quantity T and returns a formatted string
  * representing the type expressed in human language.
- * Currently supports English only. Supports type Integer, values 0 to Integer.MAX_VALUE.
+ * Currently supports English only. Supports types Integer, Long and BigInteger through
+ * {@link IntQuantityTranslator}, {@link LongQuantityTranslator} and 
+ * {@link BigIntegerQuantityTranslator}, for any non-negative value.
  * Requires Java JDK version &ge;= 1.8.
  * <p>
  * Example:
@@ -44,4 +46,33 @@ public abstract class QuantityTranslator<T> {
 	 * @param rules Set of rules followed in translating T to a human-readable string.
 	 */
 	public abstract void setRulesSet( RulesSet rules );
+	
+	/**
+	 * Returns the {@link RulesSet} this translator follows. This implementation
+	 * returns null, for translators that do not expose their rules; the 
+	 * translators of this package override it.
+	 * 
+	 * @return Rules set in use, or null if unknown.
+	 */
+	public RulesSet getRulesSet() {
+		return null;
+	}
+	
+	/**
+	 * Translates every input and appends one row per input to a batch. This 
+	 * implementation sets each input on this translator in turn and copies the 
+	 * result of {@link #translate()} into the batch; translators with a primitive
+	 * path, such as {@link IntQuantityTranslator#translateBatch(int[], int, int, TranslationBatch)},
+	 * write straight into the batch instead.
+	 * 
+	 * @param inputs Quantities to translate.
+	 * @param into Batch to append to; reuse it across batches to avoid allocation.
+	 * @return The batch.
+	 */
+	public TranslationBatch translateBatch( Iterable<? extends T> inputs, TranslationBatch into ) {
+		for ( T input : inputs ) {
+			into.addRow( withInput( input ).translate() );
+		}
+		return into;
+	}
 }
@@ -0,0 +1,387 @@
+package demo.jgoyer;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * <p>
+ * Opt-in instrumentation of the rules pipeline. Start the JVM with
+ * <code>-Ddemo.jgoyer.instrumentation=true</code> and every rule run by the 
+ * translators is wrapped to count its invocations, the invocations that were 
+ * no-ops because its index was past the end of the digit records, and the 
+ * nanoseconds spent in it. Each <code>translate()</code> call is also timed
+ * into a latency histogram for the number of digits in its input.
+ * </p><p>
+ * Each rule has counters of its own, whatever its name: an {@link IndexedRule}
+ * is told apart by its unbound rule and index, any other rule by identity, so 
+ * the same rule counts into the same counters in every list that holds it.
+ * Names are only labels, made unique with a "#2" suffix and so on when rules
+ * share one. {@link CompiledRules} does not run the rules it dropped for a 
+ * short input, but counts them as no-ops, so both modes report the same
+ * invocations and no-ops.
+ * </p><p>
+ * The switch is read once into the static final {@link #ENABLED}, so when it is
+ * off the JIT folds every hook away and the translators run as if there were none.
+ * </p><p>
+ * Counters are read through {@link #snapshot()} or, once {@link #register()} has
+ * been called, through JMX under {@value #OBJECT_NAME}. The translators register
+ * the MBean on first use when instrumentation is enabled.
+ * </p>
+ * 
+ * @author jgoyer1
+ *
+ */
+public final class RulesInstrumentation implements RulesInstrumentationMBean {
+	
+	/**
+	 * System property that enables instrumentation.
+	 */
+	public static final String PROPERTY = "demo.jgoyer.instrumentation";
+	
+	/**
+	 * True if the translators report to {@link #get()}.
+	 */
+	public static final boolean ENABLED = Boolean.getBoolean( PROPERTY );
+	
+	/**
+	 * Name of the MBean registered by {@link #register()}.
+	 */
+	public static final String OBJECT_NAME = "demo.jgoyer:type=RulesInstrumentation";
+	
+	/**
+	 * Digit counts with their own histogram; longer inputs share the last one.
+	 */
+	static final int MAX_DIGITS = 20;
+	
+	/**
+	 * Histogram bucket b counts translations that took from 2^b to 2^(b+1) - 1 nanoseconds.
+	 */
+	static final int BUCKETS = 40;
+	
+	private static final RulesInstrumentation INSTANCE = new RulesInstrumentation();
+	
+	private final ConcurrentHashMap<RuleKey,RuleCounters> rules = new ConcurrentHashMap<RuleKey,RuleCounters>();
+	private final Set<String> labels = ConcurrentHashMap.newKeySet();
+	private final LongAdder[] translations = new LongAdder[ MAX_DIGITS + 1 ];
+	private final LongAdder[] translationNanos = new LongAdder[ MAX_DIGITS + 1 ];
+	private final AtomicLongArray histograms = new AtomicLongArray( ( MAX_DIGITS + 1 ) * BUCKETS );
+	private volatile boolean registered;
+	
+	private RulesInstrumentation() {
+		for ( int i = 0; i <= MAX_DIGITS; i++ ) {
+			translations[ i ] = new LongAdder();
+			translationNanos[ i ] = new LongAdder();
+		}
+	}
+	
+	/**
+	 * @return The instrumentation the translators report to.
+	 */
+	public static RulesInstrumentation get() {
+		return INSTANCE;
+	}
+	
+	/**
+	 * Returns rule wrapped to report to these counters when instrumentation is 
+	 * enabled, or rule itself when it is not. Wrapping the same rule twice 
+	 * shares counters; rules that only share a name do not.
+	 * 
+	 * @param rule Rule to wrap.
+	 * @return Instrumented rule.
+	 */
+	public static Function<List<DigitRecord>,List<DigitRecord>> instrument( Function<List<DigitRecord>,List<DigitRecord>> rule ) {
+		if ( !ENABLED ) {
+			return rule;
+		}
+		return INSTANCE.wrap( rule );
+	}
+	
+	/**
+	 * Wraps rule regardless of {@link #ENABLED}.
+	 */
+	Function<List<DigitRecord>,List<DigitRecord>> wrap( Function<List<DigitRecord>,List<DigitRecord>> rule ) {
+		if ( rule instanceof InstrumentedRule ) {
+			return rule;
+		}
+		RuleKey key = new RuleKey( rule );
+		RuleCounters counters = rules.get( key );
+		if ( counters == null ) {
+			counters = rules.computeIfAbsent( key, k -> new RuleCounters( label( rule ) ) );
+		}
+		return new InstrumentedRule( rule, counters );
+	}
+	
+	/**
+	 * Returns the name of rule, with a suffix if another rule already has it.
+	 */
+	private String label( Function<List<DigitRecord>,List<DigitRecord>> rule ) {
+		String name = nameOf( rule );
+		String label = name;
+		for ( int n = 2; !labels.add( label ); n++ ) {
+			label = name + "#" + n;
+		}
+		return label;
+	}
+	
+	/**
+	 * Counts rules that were not run because the input was too short for them,
+	 * as {@link CompiledRules} skips them, as no-op invocations.
+	 * 
+	 * @param skipped Rules returned by {@link #instrument(Function)}.
+	 */
+	static void countSkipped( Function<List<DigitRecord>,List<DigitRecord>>[] skipped ) {
+		for ( Function<List<DigitRecord>,List<DigitRecord>> rule : skipped ) {
+			if ( rule instanceof InstrumentedRule ) {
+				RuleCounters counters = ( (InstrumentedRule)rule ).counters;
+				counters.invocations.increment();
+				counters.noOps.increment();
+			}
+		}
+	}
+	
+	/**
+	 * Names a rule in reports: the name and index of an {@link IndexedRule}, such
+	 * as "addMagnitudeSuffix@5", otherwise its class name. The name labels the
+	 * counters of a rule but does not identify them.
+	 * 
+	 * @param rule Rule to name.
+	 * @return Name of rule.
+	 */
+	public static String nameOf( Function<List<DigitRecord>,List<DigitRecord>> rule ) {
+		return ( rule instanceof IndexedRule ) ? rule.toString() : rule.getClass().getName();
+	}
+	
+	/**
+	 * Records the time a <code>translate()</code> call took. Called by the 
+	 * translators when instrumentation is enabled.
+	 * 
+	 * @param digitCount Number of digits in the input.
+	 * @param nanos Elapsed time.
+	 */
+	public void recordTranslation( int digitCount, long nanos ) {
+		if ( !registered ) {
+			register();
+		}
+		int digits = Math.max( 0, Math.min( digitCount, MAX_DIGITS ) );
+		translations[ digits ].increment();
+		translationNanos[ digits ].add( nanos );
+		int bucket = Math.min( BUCKETS - 1, 63 - Long.numberOfLeadingZeros( Math.max( 1, nanos ) ) );
+		histograms.incrementAndGet( digits * BUCKETS + bucket );
+	}
+	
+	/**
+	 * Number of decimal digits in a non-negative value.
+	 */
+	static int digitCount( long value ) {
+		int digits = 1;
+		for ( long limit = 10; digits < 19 && value >= limit; limit *= 10 ) {
+			digits++;
+		}
+		return digits;
+	}
+	
+	/**
+	 * Registers this instance with the platform MBean server, once.
+	 * 
+	 * @return True if the MBean is registered.
+	 */
+	public synchronized boolean register() {
+		if ( !registered ) {
+			try {
+				MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+				ObjectName name = new ObjectName( OBJECT_NAME );
+				if ( !server.isRegistered( name ) ) {
+					server.registerMBean( this, name );
+				}
+				registered = true;
+			}
+			catch ( JMException e ) {
+				// Counting goes on without JMX; try again on the next call
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * @return Copy of the current counters.
+	 */
+	public InstrumentationSnapshot snapshot() {
+		List<InstrumentationSnapshot.RuleStats> ruleStats = new ArrayList<InstrumentationSnapshot.RuleStats>();
+		for ( RuleCounters counters : rules.values() ) {
+			if ( counters.invocations.sum() == 0 ) {
+				continue;  // not run since the last reset
+			}
+			ruleStats.add( new InstrumentationSnapshot.RuleStats( counters.name, counters.invocations.sum(), 
+					                                              counters.noOps.sum(), counters.nanos.sum() ) );
+		}
+		long[] counts = new long[ MAX_DIGITS + 1 ];
+		long[] nanos = new long[ MAX_DIGITS + 1 ];
+		long[][] buckets = new long[ MAX_DIGITS + 1 ][ BUCKETS ];
+		for ( int digits = 0; digits <= MAX_DIGITS; digits++ ) {
+			counts[ digits ] = translations[ digits ].sum();
+			nanos[ digits ] = translationNanos[ digits ].sum();
+			for ( int bucket = 0; bucket < BUCKETS; bucket++ ) {
+				buckets[ digits ][ bucket ] = histograms.get( digits * BUCKETS + bucket );
+			}
+		}
+		return new InstrumentationSnapshot( ruleStats, counts, nanos, buckets );
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The counters of each rule are zeroed in place rather than dropped, since
+	 * rules already wrapped, such as those held by {@link CompiledRules}, keep
+	 * counting into them.
+	 */
+	@Override
+	public void reset() {
+		for ( RuleCounters counters : rules.values() ) {
+			counters.invocations.reset();
+			counters.noOps.reset();
+			counters.nanos.reset();
+		}
+		for ( int i = 0; i <= MAX_DIGITS; i++ ) {
+			translations[ i ].reset();
+			translationNanos[ i ].reset();
+		}
+		for ( int i = 0; i < histograms.length(); i++ ) {
+			histograms.set( i, 0 );
+		}
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isEnabled() {
+		return ENABLED;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String[] getRuleReport() {
+		List<InstrumentationSnapshot.RuleStats> stats = snapshot().getRuleStats();
+		String[] report = new String[ stats.size() ];
+		for ( int i = 0; i < report.length; i++ ) {
+			report[ i ] = stats.get( i ).toString();
+		}
+		return report;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long[] getTranslationCounts() {
+		return snapshot().getTranslationCounts();
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public double[] getMeanNanos() {
+		InstrumentationSnapshot snapshot = snapshot();
+		double[] means = new double[ MAX_DIGITS + 1 ];
+		for ( int digits = 0; digits <= MAX_DIGITS; digits++ ) {
+			means[ digits ] = snapshot.getMeanNanos( digits );
+		}
+		return means;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getPercentileNanos( int digitCount, double percentile ) {
+		return snapshot().getPercentileNanos( digitCount, percentile );
+	}
+	
+	/**
+	 * Identity of a rule: the unbound rule and index of an {@link IndexedRule}, 
+	 * so that equal rules of different lists share counters, or the rule itself.
+	 */
+	private static final class RuleKey {
+		final Object rule;
+		final int index;
+		
+		RuleKey( Function<List<DigitRecord>,List<DigitRecord>> rule ) {
+			if ( rule instanceof IndexedRule ) {
+				this.rule = ( (IndexedRule)rule ).getRule();
+				this.index = ( (IndexedRule)rule ).getIndex();
+			}
+			else {
+				this.rule = rule;
+				this.index = -1;
+			}
+		}
+		
+		@Override
+		public boolean equals( Object other ) {
+			return ( other instanceof RuleKey ) && ( (RuleKey)other ).rule == rule && ( (RuleKey)other ).index == index;
+		}
+		
+		@Override
+		public int hashCode() {
+			return 31 * System.identityHashCode( rule ) + index;
+		}
+	}
+	
+	private static final class RuleCounters {
+		final String name;
+		final LongAdder invocations = new LongAdder();
+		final LongAdder noOps = new LongAdder();
+		final LongAdder nanos = new LongAdder();
+		
+		RuleCounters( String name ) {
+			this.name = name;
+		}
+	}
+	
+	/**
+	 * Rule that times the rule it wraps. An {@link IndexedRule} whose index is 
+	 * past the end of the records is counted as a no-op.
+	 */
+	private static final class InstrumentedRule implements Function<List<DigitRecord>,List<DigitRecord>> {
+		private final Function<List<DigitRecord>,List<DigitRecord>> rule;
+		private final RuleCounters counters;
+		private final int index;
+		
+		InstrumentedRule( Function<List<DigitRecord>,List<DigitRecord>> rule, RuleCounters counters ) {
+			this.rule = rule;
+			this.counters = counters;
+			this.index = ( rule instanceof IndexedRule ) ? ( (IndexedRule)rule ).getIndex() : -1;
+		}
+		
+		@Override
+		public List<DigitRecord> apply( List<DigitRecord> recs ) {
+			long start = System.nanoTime();
+			List<DigitRecord> result = rule.apply( recs );
+			counters.nanos.add( System.nanoTime() - start );
+			counters.invocations.increment();
+			if ( index >= recs.size() ) {
+				counters.noOps.increment();
+			}
+			return result;
+		}
+		
+		@Override
+		public String toString() {
+			return counters.name;
+		}
+	}
+}
@@ -0,0 +1,43 @@
+package demo.jgoyer;
+
+/**
+ * JMX view of {@link RulesInstrumentation}. Arrays indexed by digit count have 
+ * one entry per count from 0 to 20; the last entry covers 20 or more digits.
+ * 
+ * @author jgoyer1
+ *
+ */
+public interface RulesInstrumentationMBean {
+	
+	/**
+	 * @return True if the JVM was started with instrumentation enabled.
+	 */
+	boolean isEnabled();
+	
+	/**
+	 * @return One line per rule: name, invocations, no-ops and total nanoseconds.
+	 */
+	String[] getRuleReport();
+	
+	/**
+	 * @return Number of translations by digit count.
+	 */
+	long[] getTranslationCounts();
+	
+	/**
+	 * @return Mean nanoseconds per translation by digit count.
+	 */
+	double[] getMeanNanos();
+	
+	/**
+	 * @param digitCount Number of digits in the input.
+	 * @param percentile Percentile from 0 to 100.
+	 * @return Upper bound, in nanoseconds, of the histogram bucket holding the percentile.
+	 */
+	long getPercentileNanos( int digitCount, double percentile );
+	
+	/**
+	 * Sets every counter to zero.
+	 */
+	void reset();
+}
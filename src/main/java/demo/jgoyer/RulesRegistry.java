@@ -0,0 +1,216 @@
+package demo.jgoyer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * <p>
+ * Registry of named rules sets, such as locales or style variants, that can be
+ * replaced on a live service. The registry publishes immutable, versioned
+ * {@link Snapshot snapshots}: every change copies the current map of
+ * translators, adds or removes entries and swaps the new snapshot in with a
+ * compare-and-set. Readers take the current snapshot with a single volatile
+ * read and never lock.
+ * </p><p>
+ * Example:
+ * </p><p>
+ * <code>
+ * RulesRegistry registry = new RulesRegistry();
+ * registry.publish( "en", new RulesSetEnglish() );
+ * ...
+ * RulesRegistry.Snapshot rules = registry.snapshot();
+ * String text = rules.get( "en" ).translate( 105 );
+ * </code>
+ * </p><p>
+ * A rules set is copied, compiled into a {@link SharedIntTranslator} and
+ * warmed with a sweep of translations before its snapshot is published, so the
+ * swap itself is only the compare-and-set, and a rules set that fails is
+ * rejected while the current snapshot stays in place. A translation that has
+ * taken a snapshot, or a translator from one, finishes on it however many
+ * snapshots are published meanwhile.
+ * </p>
+ *
+ * @author jgoyer1
+ *
+ */
+public final class RulesRegistry {
+
+	/**
+	 * Number of digits in Long.MAX_VALUE.
+	 */
+	private static final int LONG_DIGITS = 19;
+
+	/**
+	 * Values translated before publishing: every triad, then a value of each length.
+	 */
+	private static final int WARM_TRIADS = 1000;
+
+	private final AtomicReference<Snapshot> current =
+			new AtomicReference<Snapshot>( new Snapshot( 0, Collections.<String,SharedIntTranslator>emptyMap() ) );
+
+	/**
+	 * @return The current snapshot; it never changes.
+	 */
+	public Snapshot snapshot() {
+		return current.get();
+	}
+
+	/**
+	 * @return Version of the current snapshot; 0 before anything is published.
+	 */
+	public long getVersion() {
+		return current.get().version;
+	}
+
+	/**
+	 * Translates value with the named rules set of the current snapshot.
+	 *
+	 * @param name Name of the rules set.
+	 * @param value Quantity to translate.
+	 * @return Translated text, or null if value is negative.
+	 * @throws IllegalArgumentException If no rules set has that name.
+	 */
+	public String translate( String name, int value ) {
+		return current.get().require( name ).translate( value );
+	}
+
+	/**
+	 * Adds or replaces one rules set. See {@link #publish(Map)}.
+	 *
+	 * @param name Name of the rules set.
+	 * @param rulesSet Rules set to publish; its rules lists are copied.
+	 * @return Version of the snapshot published.
+	 */
+	public long publish( String name, RulesSet rulesSet ) {
+		return publish( Collections.singletonMap( name, rulesSet ) );
+	}
+
+	/**
+	 * Adds or replaces several rules sets in one snapshot, so readers see either
+	 * all of them or none. Each is copied, compiled and warmed first, outside
+	 * any lock; if one throws, nothing is published.
+	 *
+	 * @param rulesSets Rules sets by name.
+	 * @return Version of the snapshot published.
+	 */
+	public long publish( Map<String,? extends RulesSet> rulesSets ) {
+		Map<String,SharedIntTranslator> prepared = new HashMap<String,SharedIntTranslator>();
+		for ( Map.Entry<String,? extends RulesSet> entry : rulesSets.entrySet() ) {
+			prepared.put( entry.getKey(), prepare( entry.getValue() ) );
+		}
+		return swap( prepared, Collections.<String>emptySet() );
+	}
+
+	/**
+	 * Removes a rules set from the next snapshot.
+	 *
+	 * @param name Name of the rules set.
+	 * @return Version of the snapshot published.
+	 */
+	public long remove( String name ) {
+		return swap( Collections.<String,SharedIntTranslator>emptyMap(), Collections.singleton( name ) );
+	}
+
+	private long swap( Map<String,SharedIntTranslator> added, Set<String> removed ) {
+		while ( true ) {
+			Snapshot previous = current.get();
+			Map<String,SharedIntTranslator> translators = new HashMap<String,SharedIntTranslator>( previous.translators );
+			translators.keySet().removeAll( removed );
+			translators.putAll( added );
+			Snapshot next = new Snapshot( previous.version + 1, translators );
+			if ( current.compareAndSet( previous, next ) ) {
+				return next.version;
+			}
+		}
+	}
+
+	/**
+	 * Copies, compiles and warms a rules set.
+	 */
+	private static SharedIntTranslator prepare( RulesSet rulesSet ) {
+		SharedIntTranslator translator = new SharedIntTranslator( freeze( rulesSet ) );
+		for ( int triad = 0; triad < WARM_TRIADS; triad++ ) {
+			translator.translate( triad );
+		}
+		for ( long value = 1; value > 0; value = value * 10 + 7 ) {
+			translator.translate( (int)Math.min( value, Integer.MAX_VALUE ) );
+			translator.translatedLength( value );
+		}
+		return translator;
+	}
+
+	/**
+	 * Returns a rules set whose int and long rules lists are copies taken now,
+	 * so that later changes to rulesSet cannot reach a published snapshot. The
+	 * English rules lists are immutable and kept as they are.
+	 */
+	static RulesSet freeze( RulesSet rulesSet ) {
+		if ( rulesSet.getClass() == RulesSetEnglish.class ) {
+			return rulesSet;
+		}
+		List<Function<List<DigitRecord>,List<DigitRecord>>> intRules = Collections.unmodifiableList(
+				new ArrayList<Function<List<DigitRecord>,List<DigitRecord>>>( rulesSet.getRulesList() ) );
+		List<Function<List<DigitRecord>,List<DigitRecord>>> longRules = Collections.unmodifiableList(
+				new ArrayList<Function<List<DigitRecord>,List<DigitRecord>>>( rulesSet.getRulesList( LONG_DIGITS ) ) );
+		return new RulesSet() {
+			@Override
+			public List<Function<List<DigitRecord>,List<DigitRecord>>> getRulesList() {
+				return intRules;
+			}
+
+			@Override
+			public List<Function<List<DigitRecord>,List<DigitRecord>>> getRulesList( int digitCount ) {
+				return ( digitCount <= LONG_DIGITS ) ? longRules : rulesSet.getRulesList( digitCount );
+			}
+		};
+	}
+
+	/**
+	 * Immutable set of compiled rules sets, by name, at one version.
+	 */
+	public static final class Snapshot {
+		private final long version;
+		private final Map<String,SharedIntTranslator> translators;
+
+		Snapshot( long version, Map<String,SharedIntTranslator> translators ) {
+			this.version = version;
+			this.translators = Collections.unmodifiableMap( translators );
+		}
+
+		/**
+		 * @return Version of this snapshot; each publish adds one.
+		 */
+		public long getVersion() {
+			return version;
+		}
+
+		/**
+		 * @param name Name of the rules set.
+		 * @return Compiled translator, or null if no rules set has that name.
+		 */
+		public SharedIntTranslator get( String name ) {
+			return translators.get( name );
+		}
+
+		/**
+		 * @return Names of the rules sets.
+		 */
+		public Set<String> names() {
+			return translators.keySet();
+		}
+
+		SharedIntTranslator require( String name ) {
+			SharedIntTranslator translator = translators.get( name );
+			if ( translator == null ) {
+				throw new IllegalArgumentException( "no rules set \"" + name + "\" in version " + version );
+			}
+			return translator;
+		}
+	}
+}
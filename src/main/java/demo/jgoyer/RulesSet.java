@@ -30,4 +30,18 @@ public interface RulesSet {
 	 * @return A list of functions that each apply a rule to a list of DigitRecord.
 	 */
 	public List<Function<List<DigitRecord>,List<DigitRecord>>> getRulesList();
+	
+	/**
+	 * <p>
+	 * Returns a list of rules that covers every index of a list of digitCount 
+	 * records. Rules sets that handle quantities of any magnitude generate this 
+	 * list on demand; the default returns {@link #getRulesList()}, which suits a 
+	 * rules set with a fixed maximum number of digits.
+	 * <p>
+	 * @param digitCount Number of digits in the quantity to be translated.
+	 * @return A list of functions that each apply a rule to a list of DigitRecord.
+	 */
+	public default List<Function<List<DigitRecord>,List<DigitRecord>>> getRulesList( int digitCount ) {
+		return getRulesList();
+	}
 }
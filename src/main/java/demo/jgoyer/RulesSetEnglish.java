@@ -1,8 +1,8 @@
 package demo.jgoyer;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Optional;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 
@@ -38,28 +38,36 @@ public class RulesSetEnglish implements RulesSet {
 	 * of magnitude index in the list of digits to be translated.
 	 */
 	public BiFunction<List<DigitRecord>,Integer,List<DigitRecord>> addDigitNameBiFcn =
-		( ( recs, index ) -> { 
-			if ( index < recs.size() ) {
-				DigitRecord rec = recs.get(index);
-				if ( DigitMapEnglish.intToOptionalName( rec.getDigit() ).isPresent() ) {
-					rec.setName( DigitMapEnglish.intToOptionalName( rec.getDigit() ).get() );
-					
-					if ( rec.getDigit() == 0 && recs.size() > 1 ) {
-						// In english a zero is not expressed, but is a required placeholder.
-						rec.setHide( true );
-					}
-			    }
-			}
-	        return recs; } );
+		( recs, index ) -> applyAddDigitName( recs, index );
+	
+	/**
+	 * Body of {@link #addDigitNameBiFcn}, which {@link CompiledRules} calls directly.
+	 */
+	static List<DigitRecord> applyAddDigitName( List<DigitRecord> recs, int index ) {
+		if ( index < recs.size() ) {
+			DigitRecord rec = recs.get(index);
+			String name = DigitMapEnglish.nameOf( rec.getDigit() );
+			if ( name != null ) {
+				rec.setName( name );
+
+				if ( rec.getDigit() == 0 && recs.size() > 1 ) {
+					// In english a zero is not expressed, but is a required placeholder.
+					rec.setHide( true );
+				}
+		    }
+		}
+		return recs;
+	}
 	
 	/**
 	 * Function that produces the closure for the addDigitName function, binding the function
-	 * instance to an integer index.
+	 * instance to an integer index. Closures are {@link IndexedRule} instances so that 
+	 * {@link CompiledRules} can tell which rules apply to a given number of digits.
 	 */
 	public Function<Integer, Function<List<DigitRecord>, List<DigitRecord>>> createAddDigitName =
 		( index ) -> {
 			Function<List<DigitRecord>,List<DigitRecord>> fcn =
-					( ( recs ) -> addDigitNameBiFcn.apply( recs, index ) );
+					new IndexedRule( addDigitNameBiFcn, index, "addDigitName" );
 			return fcn;
 		};
 	
@@ -69,18 +77,27 @@ public class RulesSetEnglish implements RulesSet {
 	 * magnitude index 5 produces "sixty" as in "sixty thousand three hundred twenty-seven".
 	 */
 	public BiFunction<List<DigitRecord>,Integer,List<DigitRecord>> substituteWithTimesTen =
-			( ( recs, index ) -> { 
-				if ( index < recs.size() && recs.get( index ).getDigit() > 1 ) { 
-				    int lookupValue = recs.get( index ).getDigit() * 10;
-				    DigitMapEnglish.intToOptionalName( lookupValue ).ifPresent( i -> recs.get( index ).setName( i ) );
-				
-				    // Set separator in some cases
-				    if ( recs.get( index -1 ).getDigit() > 0 ) {
-				    	recs.get( index ).setTrailingSymbol( "-" );
-				    }
-				
-				}
-		        return recs; } );
+			( recs, index ) -> applySubstituteWithTimesTen( recs, index );
+	
+	/**
+	 * Body of {@link #substituteWithTimesTen}, which {@link CompiledRules} calls directly.
+	 */
+	static List<DigitRecord> applySubstituteWithTimesTen( List<DigitRecord> recs, int index ) {
+		if ( index < recs.size() && recs.get( index ).getDigit() > 1 ) { 
+		    int lookupValue = recs.get( index ).getDigit() * 10;
+		    String name = DigitMapEnglish.nameOf( lookupValue );
+		    if ( name != null ) {
+		    	recs.get( index ).setName( name );
+		    }
+
+		    // Set separator in some cases
+		    if ( recs.get( index -1 ).getDigit() > 0 ) {
+		    	recs.get( index ).setTrailingSymbol( "-" );
+		    }
+
+		}
+		return recs;
+	}
 	
 	/**
 	 * Function that produces the closure for the substituteWithTimesTen function, binding the function
@@ -89,7 +106,7 @@ public class RulesSetEnglish implements RulesSet {
 	public Function<Integer, Function<List<DigitRecord>, List<DigitRecord>>> createSubstituteWithTimesTen =
 			(index) -> {
 			Function<List<DigitRecord>,List<DigitRecord>> fcn =
-					( ( recs ) -> substituteWithTimesTen.apply( recs, index ) );
+					new IndexedRule( substituteWithTimesTen, index, "substituteWithTimesTen" );
 			return fcn;
 		};
 	
@@ -98,14 +115,22 @@ public class RulesSetEnglish implements RulesSet {
      * situations such as 1 * 10^1 followed by 5 * 10^0. These two values are mapped to "fifteen".
      */
 	public BiFunction<List<DigitRecord>,Integer,List<DigitRecord>> substituteCombineWithPrevious =
-			( ( recs, index ) -> { 
-				  if ( index < recs.size() && recs.get( index ).getDigit() == 1 ) {
-					  int lookupValue = 10 + recs.get( index - 1 ).getDigit();
-					  Optional<String> opt = DigitMapEnglish.intToOptionalName( lookupValue );
-					  opt.ifPresent(n -> recs.get( index ).setName( n ) );
-					  recs.get( index - 1 ).setHide( true );
-				  }
-		          return recs; } );
+			( recs, index ) -> applySubstituteCombineWithPrevious( recs, index );
+	
+	/**
+	 * Body of {@link #substituteCombineWithPrevious}, which {@link CompiledRules} calls directly.
+	 */
+	static List<DigitRecord> applySubstituteCombineWithPrevious( List<DigitRecord> recs, int index ) {
+		if ( index < recs.size() && recs.get( index ).getDigit() == 1 ) {
+			int lookupValue = 10 + recs.get( index - 1 ).getDigit();
+			String name = DigitMapEnglish.nameOf( lookupValue );
+			if ( name != null ) {
+				recs.get( index ).setName( name );
+			}
+			recs.get( index - 1 ).setHide( true );
+		}
+		return recs;
+	}
 	
 	/**
 	 * Function that produces the closure for the substituteCombineWithPrevious function, binding the function
@@ -114,26 +139,42 @@ public class RulesSetEnglish implements RulesSet {
 	public Function<Integer, Function<List<DigitRecord>, List<DigitRecord>>> createSubstituteCombineWithPrevious =
 			(index) -> {
 			Function<List<DigitRecord>,List<DigitRecord>> fcn =
-					( ( recs ) -> substituteCombineWithPrevious.apply( recs, index ) );
+					new IndexedRule( substituteCombineWithPrevious, index, "substituteCombineWithPrevious" );
 			return fcn;
 		};
 
+	/**
+	 * Adds "hundred" to the digit at a 10^(3x+2) index and the scale word, such as 
+	 * "thousand" or "million", to the group at a 10^3x index. When the digit at the 
+	 * 10^3x index is hidden, as in 20000 or 15000, the scale word is carried to the 
+	 * lowest visible digit of its group so that it is still printed.
+	 */
 	public BiFunction<List<DigitRecord>,Integer,List<DigitRecord>> addMagnitudeSuffix =
-			( ( recs, index ) -> {
-				if ( index < recs.size() ) {
-				   int lookupValue = -1;
-				    // Handles 10^3x quantities
-				    if ( index >= 3 && index % 3 == 0 ) {
-				       lookupValue = ipow( 10, index );  // mpy by actual power of ten
-				    }
-				    // Handles 10^2x quantities
-				    else if ( index >= 2 && index % 3 == 2 ) {
-					    lookupValue = ipow( 10, 2 );  // treat as hundreds lookup
-				    }
-				    Optional<String> opt = DigitMapEnglish.intToOptionalName( lookupValue );
-				    opt.ifPresent( s -> recs.get( index ).setSuffix( s ) );
-				}
-		    return recs; } );
+			( recs, index ) -> applyAddMagnitudeSuffix( recs, index );
+	
+	/**
+	 * Body of {@link #addMagnitudeSuffix}, which {@link CompiledRules} calls directly.
+	 */
+	static List<DigitRecord> applyAddMagnitudeSuffix( List<DigitRecord> recs, int index ) {
+		if ( index < recs.size() ) {
+		    // Handles 10^3x quantities
+		    if ( index >= 3 && index % 3 == 0 ) {
+		    	String scale = DigitMapEnglish.scaleName( index / 3 );
+		    	DigitRecord rec = lowestVisibleInGroup( recs, index );
+		    	if ( rec == recs.get( index ) || rec.getSuffix() == null ) {
+		    		rec.setSuffix( scale );
+		    	}
+		    	else {
+		    		rec.setSuffix( rec.getSuffix() + " " + scale );
+		    	}
+		    }
+		    // Handles 10^2x quantities
+		    else if ( index >= 2 && index % 3 == 2 ) {
+		    	recs.get( index ).setSuffix( DigitMapEnglish.nameOf( 100 ) );  // treat as hundreds lookup
+		    }
+		}
+		return recs;
+	}
 	
 	/**
 	 * Function that produces the closure for the addMagnitudeSuffix function, binding the function
@@ -142,79 +183,140 @@ public class RulesSetEnglish implements RulesSet {
 	public Function<Integer, Function<List<DigitRecord>, List<DigitRecord>>> createAddMagnitudeSuffix =
 			(index) -> {
 			Function<List<DigitRecord>,List<DigitRecord>> fcn =
-					( ( recs ) -> addMagnitudeSuffix.apply( recs, index ) );
+					new IndexedRule( addMagnitudeSuffix, index, "addMagnitudeSuffix" );
 			return fcn;
 		};
 		
 		
-    // Instance of english rules list
-    private static List< Function<List<DigitRecord>,List<DigitRecord>> > rules = null;
+    /**
+     * Kinds of rule {@link CompiledRules} runs by calling their bodies directly;
+     * see {@link #kindOf(BiFunction)}.
+     */
+    static final int OTHER_RULE = 0;
+    static final int ADD_DIGIT_NAME = 1;
+    static final int SUBSTITUTE_WITH_TIMES_TEN = 2;
+    static final int SUBSTITUTE_COMBINE_WITH_PREVIOUS = 3;
+    static final int ADD_MAGNITUDE_SUFFIX = 4;
+    
+    /**
+     * Number of digits in the largest int, which {@link #getRulesList()} covers.
+     */
+    private static final int INT_DIGITS = 10;
+    
+    /**
+     * Largest number of groups whose rules list is cached. Longer lists, for 
+     * BigInteger quantities, are generated on each request.
+     */
+    private static final int CACHED_GROUPS = 8;
+    
+    /**
+     * Holds the rule closures and the cached English rules lists shared by all 
+     * instances. The JVM initializes the holder once on first use, which safely 
+     * publishes the lists to every thread.
+     */
+    private static final class Holder {
+    	static final RulesSetEnglish FACTORY = new RulesSetEnglish();
+    	static final List< List< Function<List<DigitRecord>,List<DigitRecord>> > > RULES_BY_GROUPS = 
+    			new ArrayList< List< Function<List<DigitRecord>,List<DigitRecord>> > >();
+    	static {
+    		for ( int groups = 0; groups <= CACHED_GROUPS; groups++ ) {
+    			RULES_BY_GROUPS.add( FACTORY.createRulesList( groups ) );
+    		}
+    	}
+    }
     
     /**
      * {@inheritDoc} 
+     * <p>
+     * Covers every int value. The returned list is shared by all instances and 
+     * cannot be modified.
      */
     @Override
     public List< Function<List<DigitRecord>,List<DigitRecord>> > getRulesList() {
-    	
-    	if ( rules != null ) {
-    		return rules;
+    	return getRulesList( INT_DIGITS );
+    }
+    
+    /**
+     * {@inheritDoc} 
+     * <p>
+     * The list holds the same rules for each group of three digits, so quantities
+     * of any magnitude are covered. Lists of up to eight groups are shared by all
+     * instances and cannot be modified.
+     */
+    @Override
+    public List< Function<List<DigitRecord>,List<DigitRecord>> > getRulesList( int digitCount ) {
+    	int groups = Math.max( 1, ( digitCount + 2 ) / 3 );
+    	if ( groups <= CACHED_GROUPS ) {
+    		return Holder.RULES_BY_GROUPS.get( groups );
+    	}
+    	return Holder.FACTORY.createRulesList( groups );
+    }
+    
+    /**
+     * Returns the kind of an unbound rule of the shared English rules lists, or 
+     * {@link #OTHER_RULE} for any other function, including the rules of an 
+     * instance whose rule fields were replaced.
+     */
+    static int kindOf( BiFunction<List<DigitRecord>,Integer,List<DigitRecord>> rule ) {
+    	RulesSetEnglish english = Holder.FACTORY;
+    	if ( rule == english.addDigitNameBiFcn ) {
+    		return ADD_DIGIT_NAME;
+    	}
+    	if ( rule == english.substituteWithTimesTen ) {
+    		return SUBSTITUTE_WITH_TIMES_TEN;
+    	}
+    	if ( rule == english.substituteCombineWithPrevious ) {
+    		return SUBSTITUTE_COMBINE_WITH_PREVIOUS;
+    	}
+    	if ( rule == english.addMagnitudeSuffix ) {
+    		return ADD_MAGNITUDE_SUFFIX;
     	}
+    	return OTHER_RULE;
+    }
+    
+    /**
+     * Generates the rules for the given number of groups of three digits. Within a 
+     * group the digit names and the hundreds, teens and tens rules run before the
+     * scale word is added, so the scale can be carried past hidden digits.
+     */
+    private List< Function<List<DigitRecord>,List<DigitRecord>> > createRulesList( int groups ) {
     	
-    	rules = new ArrayList< Function<List<DigitRecord>,List<DigitRecord>> >();
+    	List< Function<List<DigitRecord>,List<DigitRecord>> > rules = new ArrayList< Function<List<DigitRecord>,List<DigitRecord>> >();
     	
-		// 0 to 999
-		rules.add( createAddDigitName.apply( 0 ) );
-		
-		rules.add( createAddDigitName.apply( 1 ) );
-		rules.add( createSubstituteCombineWithPrevious.apply( 1 ) );
-		rules.add( createSubstituteWithTimesTen.apply( 1 ) );
-		
-		rules.add( createAddDigitName.apply( 2 ) );
-		rules.add( createAddMagnitudeSuffix.apply( 2 ) );
-		
-		// 1000 to 999999
-		rules.add( createAddDigitName.apply( 3 ) );
-		rules.add( createAddMagnitudeSuffix.apply( 3 ) );
-		
-		rules.add( createAddDigitName.apply( 4 ) );  // 0 in test
-		rules.add( createSubstituteWithTimesTen.apply( 4 ) );
-		
-		rules.add( createAddDigitName.apply( 5 ) );
-		rules.add( createAddMagnitudeSuffix.apply( 5 ) );
-
-		// 1000000 to 999999999
-		rules.add( createAddDigitName.apply( 6 ) );
-		rules.add( createAddMagnitudeSuffix.apply( 6 ) );
-		
-		rules.add( createAddDigitName.apply( 7 ) );  
-		rules.add( createSubstituteWithTimesTen.apply( 7 ) );
-		
-		rules.add( createAddDigitName.apply(  8 ) );
-		rules.add( createAddMagnitudeSuffix.apply(  8 ) );
-
-		// billions
-		rules.add( createAddDigitName.apply( 9 ) );
-		rules.add( createAddMagnitudeSuffix.apply(  9 ) );
-		
-		return rules;
+    	for ( int group = 0; group < groups; group++ ) {
+    		int ones = 3 * group;
+    		
+    		rules.add( createAddDigitName.apply( ones ) );
+    		
+    		rules.add( createAddDigitName.apply( ones + 1 ) );
+    		rules.add( createSubstituteCombineWithPrevious.apply( ones + 1 ) );
+    		rules.add( createSubstituteWithTimesTen.apply( ones + 1 ) );
+    		
+    		rules.add( createAddDigitName.apply( ones + 2 ) );
+    		rules.add( createAddMagnitudeSuffix.apply( ones + 2 ) );
+    		
+    		// thousand, million, billion, ...
+    		if ( group > 0 ) {
+    			rules.add( createAddMagnitudeSuffix.apply( ones ) );
+    		}
+    	}
+		return Collections.unmodifiableList( rules );
+    }
+    
+    /**
+     * Returns the lowest record of the group starting at index that is not hidden,
+     * or the record at index if the whole group is hidden.
+     */
+    private static DigitRecord lowestVisibleInGroup( List<DigitRecord> recs, int index ) {
+    	for ( int i = index; i < recs.size() && i < index + 3; i++ ) {
+    		if ( !recs.get( i ).getHide() ) {
+    			return recs.get( i );
+    		}
+    	}
+    	return recs.get( index );
     }
 
-	
 	private static int ilog( int input ) {
 		return ((Double)Math.log( new Double( input ) ) ).intValue();
 	}
-	
-	private static int ipow(int base, int exp)
-	{
-	    int result = 1;
-	    while (exp != 0)
-	    {
-	        if ((exp & 1) == 1)
-	            result *= base;
-	        exp >>= 1;
-	        base *= base;
-	    }
-
-	    return result;
-	}
 }
@@ -0,0 +1,182 @@
+package demo.jgoyer;
+
+import java.io.IOException;
+
+/**
+ * <p>
+ * Cursor that translates runs of consecutive quantities, such as check or
+ * invoice numbers, reusing the text of the previous value. The current
+ * translation is kept in a buffer together with the offset at which each triad
+ * (group of three digits) starts. Moving to a new value finds the most
+ * significant group that changed, cuts the buffer back to where that group
+ * starts and appends only that group and the ones below it, from
+ * {@link TriadTableEnglish}. Stepping by one therefore costs one triad lookup
+ * and append, except once every thousand values.
+ * </p><p>
+ * Example:
+ * </p><p>
+ * <code>
+ * SequentialTranslator cursor = new SequentialTranslator( 1000, 2000 );
+ * while ( cursor.next() ) {
+ *     out.append( cursor.value() ).append( ',' ).append( cursor.text() ).append( '\n' );
+ * }
+ * </code>
+ * </p><p>
+ * The text is that of {@link LongQuantityTranslator} with {@link RulesSetEnglish}.
+ * Any value may be reached with {@link #moveTo(long)}; values close to the
+ * previous one share the most work. A SequentialTranslator is not safe to share
+ * between threads.
+ * </p>
+ *
+ * @author jgoyer1
+ *
+ */
+public final class SequentialTranslator {
+
+	private final long from;
+	private final long to;
+
+	private final StringBuilder text = new StringBuilder( 128 );
+
+	/**
+	 * Offset in text at which each group's words, with their leading space, start.
+	 */
+	private final int[] groupStart = new int[ TriadTableEnglish.GROUPS ];
+
+	/**
+	 * Value text holds, or -1 if text does not hold a reusable translation.
+	 */
+	private long current = -1;
+	private long next;
+
+	/**
+	 * Creates a cursor that is not on any value; see {@link #moveTo(long)}.
+	 */
+	public SequentialTranslator() {
+		this( 0, 0 );
+	}
+
+	/**
+	 * Creates a cursor over the values from from, inclusive, to to, exclusive.
+	 * The first call to {@link #next()} moves to from.
+	 *
+	 * @param from First value, not negative.
+	 * @param to Value after the last.
+	 */
+	public SequentialTranslator( long from, long to ) {
+		if ( from < 0 ) {
+			throw new IllegalArgumentException( "from " + from );
+		}
+		this.from = from;
+		this.to = to;
+		this.next = from;
+	}
+
+	/**
+	 * Moves to the next value of the range.
+	 *
+	 * @return False, without moving, if the range is exhausted.
+	 */
+	public boolean next() {
+		if ( next >= to || next < 0 ) {
+			// next is negative after moving to Long.MAX_VALUE
+			return false;
+		}
+		moveTo( next );
+		return true;
+	}
+
+	/**
+	 * Moves to value, which need not be in the range, and translates it. The
+	 * next call to {@link #next()} moves to the value after it.
+	 *
+	 * @param value Quantity to translate, not negative.
+	 * @return The translation; see {@link #text()}.
+	 */
+	public CharSequence moveTo( long value ) {
+		if ( value < 0 ) {
+			throw new IllegalArgumentException( "value " + value );
+		}
+		next = value + 1;
+		if ( value == current ) {
+			return text;
+		}
+		if ( value == 0 ) {
+			text.setLength( 0 );
+			text.append( TriadTableEnglish.ZERO );
+			current = -1;  // no group offsets to reuse
+			return text;
+		}
+
+		int group = ( current < 0 ) ? TriadTableEnglish.GROUPS - 1 : highestChangedGroup( current, value );
+		text.setLength( ( group == TriadTableEnglish.GROUPS - 1 ) ? 0 : groupStart[ group ] );
+		for ( ; group >= 0; group-- ) {
+			groupStart[ group ] = text.length();
+			int triad = TriadTableEnglish.triadAt( value, group );
+			if ( triad != 0 ) {
+				if ( text.length() > 0 ) {
+					text.append( ' ' );
+				}
+				text.append( TriadTableEnglish.triad( triad ) );
+				if ( group > 0 ) {
+					text.append( ' ' ).append( TriadTableEnglish.scale( group ) );
+				}
+			}
+		}
+		current = value;
+		return text;
+	}
+
+	/**
+	 * Index of the most significant group in which a and b differ.
+	 */
+	private static int highestChangedGroup( long a, long b ) {
+		int group = 0;
+		while ( group < TriadTableEnglish.GROUPS - 1
+				&& a / TriadTableEnglish.GROUP_POWERS[ group + 1 ] != b / TriadTableEnglish.GROUP_POWERS[ group + 1 ] ) {
+			group++;
+		}
+		return group;
+	}
+
+	/**
+	 * @return Value the cursor is on.
+	 */
+	public long value() {
+		return next - 1;
+	}
+
+	/**
+	 * Returns the translation of the current value. The sequence is a view that
+	 * changes when the cursor moves; copy it, with toString() for instance, to keep it.
+	 *
+	 * @return The translation.
+	 */
+	public CharSequence text() {
+		return text;
+	}
+
+	/**
+	 * Appends the translation of the current value to out.
+	 *
+	 * @param out Destination of the translated text.
+	 * @throws IOException If out throws.
+	 */
+	public void appendTo( Appendable out ) throws IOException {
+		out.append( text );
+	}
+
+	/**
+	 * @return First value of the range.
+	 */
+	public long getFrom() {
+		return from;
+	}
+
+	/**
+	 * @return Value after the last of the range.
+	 */
+	public long getTo() {
+		return to;
+	}
+}
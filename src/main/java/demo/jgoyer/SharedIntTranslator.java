@@ -0,0 +1,252 @@
+package demo.jgoyer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * <p>
+ * Immutable, thread-safe translator of int quantities. Unlike 
+ * {@link IntQuantityTranslator} it holds no input: every call passes its value,
+ * so a single instance can serve all threads without locking. Handles range 0
+ * to Integer.MAX_VALUE and produces the same text as IntQuantityTranslator.
+ * <p>
+ * Example:
+ * </p><p>
+ * <code>
+ * SharedIntTranslator trx = SharedIntTranslator.english();
+ * System.out.println( trx.translate( 314 ) );
+ * </code>
+ * </p><p>
+ * prints the string "three hundred fourteen".
+ * </p><p>
+ * The rules set is compiled once on construction. With the default 
+ * {@link RulesSetEnglish} the allocation-free English writer is used; any other
+ * rules set runs through {@link CompiledRules} on digit records local to the call.
+ * </p>
+ * 
+ * @author jgoyer1
+ *
+ */
+public final class SharedIntTranslator {
+	
+	private static final SharedIntTranslator ENGLISH = new SharedIntTranslator();
+	
+	/**
+	 * Number of digits in Long.MAX_VALUE.
+	 */
+	private static final int LONG_DIGITS = 19;
+	
+	private final RulesSet rulesSet;
+	private final CompiledRules compiledRules;
+	private final CompiledRules compiledLongRules;
+	private final boolean english;
+	
+	/**
+	 * Creates a translator for the given rules set. The int and long rules lists
+	 * are read and compiled once, here; the rules set must not change them afterwards.
+	 * 
+	 * @param rulesSet Rules followed in translating quantities.
+	 */
+	public SharedIntTranslator( RulesSet rulesSet ) {
+		this.rulesSet = rulesSet;
+		this.compiledRules = CompiledRules.compile( rulesSet );
+		this.compiledLongRules = CompiledRules.compile( rulesSet, LONG_DIGITS );
+		this.english = ( rulesSet.getClass() == RulesSetEnglish.class );
+	}
+	
+	/**
+	 * Creates the shared English translator. It only needs the tables of 
+	 * {@link TriadTableEnglish}, so the rules set, with its lambdas, is not 
+	 * created until {@link #getRulesSet()} asks for it.
+	 */
+	private SharedIntTranslator() {
+		this.rulesSet = null;
+		this.compiledRules = null;
+		this.compiledLongRules = null;
+		this.english = true;
+	}
+	
+	/**
+	 * Holds the rules set of the shared English translator.
+	 */
+	private static final class EnglishRules {
+		static final RulesSetEnglish RULES_SET = new RulesSetEnglish();
+	}
+	
+	/**
+	 * @return Shared translator for {@link RulesSetEnglish}.
+	 */
+	public static SharedIntTranslator english() {
+		return ENGLISH;
+	}
+	
+	/**
+	 * Translates value into a String.
+	 * 
+	 * @param value Quantity to translate.
+	 * @return Translated text, or null if value is negative.
+	 */
+	public String translate( int value ) {
+		if ( value < 0 ) {
+			return null;
+		}
+		if ( english ) {
+			StringBuilder out = new StringBuilder( 64 );
+			translate( value, out );
+			return out.toString();
+		}
+		return IntQuantityTranslator.translateCompiled( value, compiledRules );
+	}
+	
+	/**
+	 * Appends the translation of value to out.
+	 * 
+	 * @param value Quantity to translate.
+	 * @param out Destination of the translated text.
+	 * @return False, with nothing appended, if value is negative; true otherwise.
+	 */
+	public boolean translate( int value, StringBuilder out ) {
+		try {
+			return translate( value, (Appendable)out );
+		}
+		catch ( IOException e ) {
+			// StringBuilder does not throw
+			throw new UncheckedIOException( e );
+		}
+	}
+	
+	/**
+	 * Appends the translation of value to out.
+	 * 
+	 * @param value Quantity to translate.
+	 * @param out Destination of the translated text.
+	 * @return False, with nothing appended, if value is negative; true otherwise.
+	 * @throws IOException If out throws.
+	 */
+	public boolean translate( int value, Appendable out ) throws IOException {
+		if ( english ) {
+			return EnglishIntWriter.write( value, out );
+		}
+		if ( value < 0 ) {
+			return false;
+		}
+		out.append( IntQuantityTranslator.translateCompiled( value, compiledRules ) );
+		return true;
+	}
+	
+	/**
+	 * Puts the translation of value, encoded as UTF-8, into a heap or direct 
+	 * buffer. See {@link IntQuantityTranslator#translate(int, ByteBuffer)}.
+	 * 
+	 * @param value Quantity to translate.
+	 * @param out Destination buffer.
+	 * @return Number of bytes put, or -1, with nothing put, if value is negative.
+	 * @throws BufferOverflowException If out has too little room; its position is unchanged.
+	 */
+	public int translate( int value, ByteBuffer out ) {
+		if ( english ) {
+			return EnglishIntWriter.write( value, out );
+		}
+		if ( value < 0 ) {
+			return -1;
+		}
+		return IntQuantityTranslator.putUtf8( IntQuantityTranslator.translateCompiled( value, compiledRules ), out );
+	}
+	
+	/**
+	 * Translates value into a compact CharSequence. With the default 
+	 * {@link RulesSetEnglish} the result is a {@link FragmentText}, which refers
+	 * to shared words by index instead of holding characters and takes a fraction
+	 * of the memory of the String, suiting translations kept in large numbers; 
+	 * any other rules set returns the String.
+	 * 
+	 * @param value Quantity to translate.
+	 * @return Translated text, or null if value is negative.
+	 */
+	public CharSequence translateCompact( int value ) {
+		return translateCompact( (long)value );
+	}
+	
+	/**
+	 * Translates a long value, as {@link LongQuantityTranslator} does, into a 
+	 * compact CharSequence. See {@link #translateCompact(int)}.
+	 * 
+	 * @param value Quantity to translate.
+	 * @return Translated text, or null if value is negative.
+	 */
+	public CharSequence translateCompact( long value ) {
+		if ( english || value < 0 ) {
+			return FragmentText.of( value );
+		}
+		return IntQuantityTranslator.translateCompiled( value, compiledLongRules );
+	}
+	
+	/**
+	 * Returns the number of characters in the translation of value without 
+	 * building it. With the default {@link RulesSetEnglish} it is added up from 
+	 * precomputed fragment lengths, allocating nothing; any other rules set is
+	 * translated and measured.
+	 * 
+	 * @param value Quantity to measure.
+	 * @return Length of the translation, or -1 if value is negative.
+	 */
+	public int translatedLength( int value ) {
+		if ( value < 0 ) {
+			return -1;
+		}
+		if ( english ) {
+			return EnglishIntWriter.length( value );
+		}
+		return IntQuantityTranslator.translateCompiled( value, compiledRules ).length();
+	}
+	
+	/**
+	 * Returns the number of characters in the translation of a long value, as 
+	 * {@link LongQuantityTranslator} produces it, without building it. See 
+	 * {@link #translatedLength(int)}.
+	 * 
+	 * @param value Quantity to measure.
+	 * @return Length of the translation, or -1 if value is negative.
+	 */
+	public int translatedLength( long value ) {
+		if ( value < 0 ) {
+			return -1;
+		}
+		if ( english ) {
+			return EnglishIntWriter.length( value );
+		}
+		return IntQuantityTranslator.translateCompiled( value, compiledLongRules ).length();
+	}
+	
+	/**
+	 * Returns the total number of characters in the translations of values, 
+	 * negative values counting as none, so that a buffer or 
+	 * {@link TranslationBatch} of exactly the right size can be allocated up front.
+	 * Add one per value for a separator such as a newline.
+	 * 
+	 * @param values Quantities to measure.
+	 * @return Total length of the translations.
+	 */
+	public long translatedLength( int[] values ) {
+		long total = 0;
+		for ( int value : values ) {
+			if ( value >= 0 ) {
+				total += translatedLength( value );
+			}
+		}
+		return total;
+	}
+	
+	public RulesSet getRulesSet() {
+		return ( rulesSet != null ) ? rulesSet : EnglishRules.RULES_SET;
+	}
+	
+	/**
+	 * @return True if the tables of {@link TriadTableEnglish} are used instead of the rules.
+	 */
+	boolean isEnglish() {
+		return english;
+	}
+}
@@ -0,0 +1,285 @@
+package demo.jgoyer;
+
+import java.nio.CharBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * <p>
+ * Translations of a batch of quantities packed into one growable char array.
+ * Row i occupies the characters from {@link #start(int)} up to {@link #end(int)};
+ * no String is created for a row unless {@link #get(int)} is called.
+ * <p>
+ * A batch is meant to be reused: {@link #clear()} keeps the arrays, so once they
+ * have grown to fit a typical batch further batches allocate nothing. Rows for 
+ * inputs the translator does not handle, such as negative values, are empty and
+ * {@link #get(int)} returns null for them, matching 
+ * {@link QuantityTranslator#translate()}.
+ * <p>
+ * A TranslationBatch is not safe to share between threads while it is filled.
+ * 
+ * @author jgoyer1
+ *
+ */
+public final class TranslationBatch {
+	
+	/**
+	 * Largest number of characters, or of rows, a batch holds: the largest array
+	 * most JVMs allocate.
+	 */
+	static final int MAX_LENGTH = Integer.MAX_VALUE - 8;
+	
+	private char[] chars;
+	private int length = 0;
+	
+	/**
+	 * Offsets of each row into chars; row i ends where row i + 1 starts.
+	 */
+	private int[] offsets;
+	private int size = 0;
+	
+	/**
+	 * Rows that have no translation. Created on first use.
+	 */
+	private BitSet untranslated = null;
+	
+	/**
+	 * Appends to the current row; used by translators to fill the batch.
+	 */
+	final RowWriter rowWriter = new RowWriter();
+	
+	final class RowWriter implements Appendable {
+		@Override
+		public RowWriter append( CharSequence csq ) {
+			return append( csq, 0, csq.length() );
+		}
+		
+		@Override
+		public RowWriter append( CharSequence csq, int start, int end ) {
+			ensureCapacity( end - start );
+			if ( csq instanceof String ) {
+				( (String)csq ).getChars( start, end, chars, length );
+				length += end - start;
+			}
+			else {
+				for ( int i = start; i < end; i++ ) {
+					chars[ length++ ] = csq.charAt( i );
+				}
+			}
+			return this;
+		}
+		
+		@Override
+		public RowWriter append( char c ) {
+			ensureCapacity( 1 );
+			chars[ length++ ] = c;
+			return this;
+		}
+	}
+	
+	/**
+	 * Creates an empty batch sized for about 64 rows.
+	 */
+	public TranslationBatch() {
+		this( 64, 64 * 48 );
+	}
+	
+	/**
+	 * Creates an empty batch with the given initial capacities. Both grow as needed.
+	 * 
+	 * @param rows Number of rows expected.
+	 * @param chars Total number of characters expected.
+	 */
+	public TranslationBatch( int rows, int chars ) {
+		this.chars = new char[ Math.max( 16, chars ) ];
+		this.offsets = new int[ Math.max( 1, rows ) + 1 ];
+	}
+	
+	/**
+	 * Removes all rows, keeping the allocated arrays.
+	 * 
+	 * @return This batch.
+	 */
+	public TranslationBatch clear() {
+		length = 0;
+		size = 0;
+		if ( untranslated != null ) {
+			untranslated.clear();
+		}
+		return this;
+	}
+	
+	/**
+	 * @return Number of rows.
+	 */
+	public int size() {
+		return size;
+	}
+	
+	/**
+	 * @param row Row index.
+	 * @return Offset of the first character of the row in {@link #chars()}.
+	 */
+	public int start( int row ) {
+		checkRow( row );
+		return offsets[ row ];
+	}
+	
+	/**
+	 * @param row Row index.
+	 * @return Offset just past the last character of the row in {@link #chars()}.
+	 */
+	public int end( int row ) {
+		checkRow( row );
+		return offsets[ row + 1 ];
+	}
+	
+	/**
+	 * @param row Row index.
+	 * @return Number of characters in the row.
+	 */
+	public int length( int row ) {
+		return end( row ) - start( row );
+	}
+	
+	/**
+	 * @param row Row index.
+	 * @return False if the input of the row was not translated, for instance because it was negative.
+	 */
+	public boolean isTranslated( int row ) {
+		checkRow( row );
+		return untranslated == null || !untranslated.get( row );
+	}
+	
+	/**
+	 * Materializes a row as a String.
+	 * 
+	 * @param row Row index.
+	 * @return Text of the row, or null if its input was not translated.
+	 */
+	public String get( int row ) {
+		return isTranslated( row ) ? new String( chars, start( row ), length( row ) ) : null;
+	}
+	
+	/**
+	 * Returns a read-only view of one row that shares this batch's characters.
+	 * The view is only valid until the batch is cleared or grows.
+	 * 
+	 * @param row Row index.
+	 * @return View of the row.
+	 */
+	public CharBuffer view( int row ) {
+		return CharBuffer.wrap( chars, start( row ), length( row ) ).asReadOnlyBuffer();
+	}
+	
+	/**
+	 * Returns the backing array holding every row. Characters past the end of the 
+	 * last row are unused.
+	 * 
+	 * @return Backing array; changes to it change the rows.
+	 */
+	public char[] chars() {
+		return chars;
+	}
+	
+	/**
+	 * @return Total number of characters in all rows.
+	 */
+	public int charCount() {
+		return length;
+	}
+	
+	/**
+	 * Appends every row of another batch after the rows of this one.
+	 * 
+	 * @param other Batch to copy; it is not changed.
+	 * @return This batch.
+	 */
+	public TranslationBatch addAll( TranslationBatch other ) {
+		ensureCapacity( other.length );
+		System.arraycopy( other.chars, 0, chars, length, other.length );
+		if ( size + 1L + other.size > offsets.length ) {
+			offsets = Arrays.copyOf( offsets, grownLength( offsets.length, size + 1L + other.size, "rows" ) );
+		}
+		for ( int row = 0; row < other.size; row++ ) {
+			offsets[ size + row + 1 ] = length + other.offsets[ row + 1 ];
+			if ( !other.isTranslated( row ) ) {
+				if ( untranslated == null ) {
+					untranslated = new BitSet();
+				}
+				untranslated.set( size + row );
+			}
+		}
+		size += other.size;
+		length += other.length;
+		return this;
+	}
+	
+	/**
+	 * Closes the row being written by {@link #rowWriter}.
+	 * 
+	 * @param translated False if the row's input could not be translated.
+	 */
+	void endRow( boolean translated ) {
+		if ( size + 2L > offsets.length ) {
+			offsets = Arrays.copyOf( offsets, grownLength( offsets.length, size + 2L, "rows" ) );
+		}
+		if ( !translated ) {
+			if ( untranslated == null ) {
+				untranslated = new BitSet();
+			}
+			untranslated.set( size );
+		}
+		size++;
+		offsets[ size ] = length;
+	}
+	
+	/**
+	 * Appends a complete row.
+	 * 
+	 * @param text Text of the row, or null if its input was not translated.
+	 */
+	void addRow( String text ) {
+		if ( text != null ) {
+			rowWriter.append( text );
+		}
+		endRow( text != null );
+	}
+	
+	private void ensureCapacity( int extra ) {
+		if ( (long)length + extra > chars.length ) {
+			chars = Arrays.copyOf( chars, grownLength( chars.length, (long)length + extra, "characters" ) );
+		}
+	}
+	
+	/**
+	 * Returns the length to grow an array to: double its current length, or 
+	 * needed if that is more, but no more than {@link #MAX_LENGTH}.
+	 * 
+	 * @throws IllegalStateException If needed is more than {@link #MAX_LENGTH}.
+	 */
+	private static int grownLength( int current, long needed, String what ) {
+		return (int)Math.max( Math.min( 2L * current, MAX_LENGTH ), checkLength( needed, what ) );
+	}
+	
+	/**
+	 * Returns length if a batch can hold that many characters or rows.
+	 * 
+	 * @param length Number needed.
+	 * @param what "characters" or "rows", for the message.
+	 * @return length as an int.
+	 * @throws IllegalStateException If length is more than {@link #MAX_LENGTH}.
+	 */
+	static int checkLength( long length, String what ) {
+		if ( length > MAX_LENGTH ) {
+			throw new IllegalStateException( "batch would hold " + length + " " + what + ", more than " + MAX_LENGTH );
+		}
+		return (int)length;
+	}
+	
+	private void checkRow( int row ) {
+		if ( row < 0 || row >= size ) {
+			throw new IndexOutOfBoundsException( "row " + row + " of " + size );
+		}
+	}
+}
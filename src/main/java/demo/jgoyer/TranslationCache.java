@@ -0,0 +1,346 @@
+package demo.jgoyer;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * <p>
+ * Bounded, thread-safe cache of translations keyed by the input quantity and 
+ * the rules that translated it. Used by {@link CachingQuantityTranslator}; one
+ * cache may be shared by any number of translators and threads.
+ * <p>
+ * Every instance of {@link RulesSetEnglish} follows the same rules and shares
+ * its entries with every other. Any other rules set is identified by the list
+ * its {@link RulesSet#getRulesList()} returns, compared by identity, so rules
+ * sets that return one shared list share entries too, while a rules set that
+ * builds a new list on each call never hits.
+ * <p>
+ * Entries are spread over independently locked segments by the hash of their
+ * key, so threads contend only when they hit the same segment. Each segment 
+ * holds an equal share of the maximum size and evicts by the configured 
+ * {@link EvictionPolicy}. Hits, misses and evictions are counted without locks
+ * and reported by {@link #stats()}.
+ * 
+ * @author jgoyer1
+ *
+ */
+public final class TranslationCache {
+	
+	private static final int DEFAULT_SEGMENTS = 16;
+	
+	private final Segment[] segments;
+	private final EvictionPolicy policy;
+	private final int maximumSize;
+	
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	
+	/**
+	 * @param maximumSize Largest number of entries held.
+	 * @param policy Eviction policy.
+	 */
+	public TranslationCache( int maximumSize, EvictionPolicy policy ) {
+		this( maximumSize, policy, DEFAULT_SEGMENTS );
+	}
+	
+	/**
+	 * @param maximumSize Largest number of entries held.
+	 * @param policy Eviction policy.
+	 * @param concurrency Expected number of threads using the cache at once; rounded
+	 *                    up to a power of two and capped at maximumSize.
+	 */
+	public TranslationCache( int maximumSize, EvictionPolicy policy, int concurrency ) {
+		if ( maximumSize < 1 || concurrency < 1 ) {
+			throw new IllegalArgumentException( "maximumSize " + maximumSize + ", concurrency " + concurrency );
+		}
+		int count = 1;
+		while ( count < concurrency && count < maximumSize ) {
+			count <<= 1;
+		}
+		this.maximumSize = maximumSize;
+		this.policy = policy;
+		this.segments = new Segment[ count ];
+		for ( int i = 0; i < count; i++ ) {
+			// Spread the remainder so the capacities add up to maximumSize.
+			int capacity = maximumSize / count + ( ( i < maximumSize % count ) ? 1 : 0 );
+			segments[ i ] = ( policy == EvictionPolicy.LRU ) ? new LruSegment( capacity ) : new LfuSegment( capacity );
+		}
+	}
+	
+	/**
+	 * Returns the cached translation of input under rulesSet, translating and
+	 * caching it on a miss. Null translations are returned but not cached. The
+	 * translation runs outside the segment lock, so two threads missing on the
+	 * same key may both translate it.
+	 * 
+	 * @param input Quantity.
+	 * @param rulesSet Rules set the translation follows.
+	 * @param translation Produces the translation on a miss.
+	 * @return Translation of input.
+	 */
+	public String get( Object input, RulesSet rulesSet, Supplier<String> translation ) {
+		return get( input, rulesKey( rulesSet ), translation );
+	}
+	
+	/**
+	 * As {@link #get(Object, RulesSet, Supplier)}, with the rules identified by
+	 * rules, compared by identity.
+	 */
+	String get( Object input, Object rules, Supplier<String> translation ) {
+		Key key = new Key( input, rules );
+		Segment segment = segments[ spread( key.hash ) & ( segments.length - 1 ) ];
+		String value;
+		synchronized ( segment ) {
+			value = segment.get( key );
+		}
+		if ( value != null ) {
+			hits.increment();
+			return value;
+		}
+		misses.increment();
+		value = translation.get();
+		if ( value != null ) {
+			boolean evicted;
+			synchronized ( segment ) {
+				evicted = segment.put( key, value );
+			}
+			if ( evicted ) {
+				evictions.increment();
+			}
+		}
+		return value;
+	}
+	
+	/**
+	 * @return Snapshot of the counters and current size.
+	 */
+	public CacheStats stats() {
+		return new CacheStats( hits.sum(), misses.sum(), evictions.sum(), size() );
+	}
+	
+	/**
+	 * @return Number of entries held.
+	 */
+	public int size() {
+		int size = 0;
+		for ( Segment segment : segments ) {
+			synchronized ( segment ) {
+				size += segment.size();
+			}
+		}
+		return size;
+	}
+	
+	/**
+	 * Removes every entry. Counters are kept.
+	 */
+	public void clear() {
+		for ( Segment segment : segments ) {
+			synchronized ( segment ) {
+				segment.clear();
+			}
+		}
+	}
+	
+	public EvictionPolicy getPolicy() {
+		return policy;
+	}
+	
+	public int getMaximumSize() {
+		return maximumSize;
+	}
+	
+	/**
+	 * Returns the object that identifies the rules of rulesSet: the class of the
+	 * English rules, which every instance shares, or else the rules list.
+	 */
+	static Object rulesKey( RulesSet rulesSet ) {
+		if ( rulesSet.getClass() == RulesSetEnglish.class ) {
+			return RulesSetEnglish.class;
+		}
+		return rulesSet.getRulesList();
+	}
+	
+	private static int spread( int hash ) {
+		return hash ^ ( hash >>> 16 );
+	}
+	
+	private static final class Key {
+		final Object input;
+		final Object rules;
+		final int hash;
+		
+		Key( Object input, Object rules ) {
+			this.input = input;
+			this.rules = rules;
+			this.hash = 31 * input.hashCode() + System.identityHashCode( rules );
+		}
+		
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+		
+		@Override
+		public boolean equals( Object other ) {
+			if ( !( other instanceof Key ) ) {
+				return false;
+			}
+			Key key = (Key)other;
+			return rules == key.rules && input.equals( key.input );
+		}
+	}
+	
+	/**
+	 * Part of the cache guarded by its own monitor. Callers hold the lock.
+	 */
+	private interface Segment {
+		String get( Key key );
+		
+		/**
+		 * @return True if an entry was evicted to make room.
+		 */
+		boolean put( Key key, String value );
+		
+		int size();
+		
+		void clear();
+	}
+	
+	private static final class LruSegment implements Segment {
+		private final int capacity;
+		private final LinkedHashMap<Key,String> entries;
+		private boolean evicted;
+		
+		LruSegment( final int capacity ) {
+			this.capacity = capacity;
+			this.entries = new LinkedHashMap<Key,String>( 16, 0.75f, true ) {
+				private static final long serialVersionUID = 1L;
+				
+				@Override
+				protected boolean removeEldestEntry( Map.Entry<Key,String> eldest ) {
+					evicted = size() > LruSegment.this.capacity;
+					return evicted;
+				}
+			};
+		}
+		
+		@Override
+		public String get( Key key ) {
+			return entries.get( key );
+		}
+		
+		@Override
+		public boolean put( Key key, String value ) {
+			evicted = false;
+			entries.put( key, value );
+			return evicted;
+		}
+		
+		@Override
+		public int size() {
+			return entries.size();
+		}
+		
+		@Override
+		public void clear() {
+			entries.clear();
+		}
+	}
+	
+	/**
+	 * Constant-time LFU: entries sit in a bucket per read count, oldest first, and
+	 * the lowest non-empty count is tracked.
+	 */
+	private static final class LfuSegment implements Segment {
+		private final int capacity;
+		private final Map<Key,Node> entries = new HashMap<Key,Node>();
+		private final Map<Integer,LinkedHashSet<Node>> buckets = new HashMap<Integer,LinkedHashSet<Node>>();
+		private int minCount = 0;
+		
+		LfuSegment( int capacity ) {
+			this.capacity = capacity;
+		}
+		
+		@Override
+		public String get( Key key ) {
+			Node node = entries.get( key );
+			if ( node == null ) {
+				return null;
+			}
+			LinkedHashSet<Node> bucket = buckets.get( node.count );
+			bucket.remove( node );
+			if ( bucket.isEmpty() ) {
+				buckets.remove( node.count );
+				if ( minCount == node.count ) {
+					minCount++;
+				}
+			}
+			node.count++;
+			bucket( node.count ).add( node );
+			return node.value;
+		}
+		
+		@Override
+		public boolean put( Key key, String value ) {
+			Node existing = entries.get( key );
+			if ( existing != null ) {
+				existing.value = value;
+				return false;
+			}
+			boolean evicted = false;
+			if ( entries.size() >= capacity ) {
+				LinkedHashSet<Node> bucket = buckets.get( minCount );
+				Node victim = bucket.iterator().next();
+				bucket.remove( victim );
+				if ( bucket.isEmpty() ) {
+					buckets.remove( minCount );
+				}
+				entries.remove( victim.key );
+				evicted = true;
+			}
+			Node node = new Node( key, value );
+			entries.put( key, node );
+			bucket( node.count ).add( node );
+			minCount = node.count;
+			return evicted;
+		}
+		
+		private LinkedHashSet<Node> bucket( int count ) {
+			LinkedHashSet<Node> bucket = buckets.get( count );
+			if ( bucket == null ) {
+				bucket = new LinkedHashSet<Node>();
+				buckets.put( count, bucket );
+			}
+			return bucket;
+		}
+		
+		@Override
+		public int size() {
+			return entries.size();
+		}
+		
+		@Override
+		public void clear() {
+			entries.clear();
+			buckets.clear();
+			minCount = 0;
+		}
+		
+		private static final class Node {
+			final Key key;
+			String value;
+			int count = 1;
+			
+			Node( Key key, String value ) {
+				this.key = key;
+				this.value = value;
+			}
+		}
+	}
+}
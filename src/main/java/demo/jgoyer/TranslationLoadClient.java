@@ -0,0 +1,219 @@
+package demo.jgoyer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * <p>
+ * Load generator for {@link TranslationServer}. Each connection runs on its
+ * own thread and sends random ints in pipelined windows: a window of requests
+ * goes out in one write, and the latency of each request is the time from that
+ * write until its response line arrives. Reports throughput and latency
+ * percentiles over every request.
+ * </p><p>
+ * Example:
+ * </p><p>
+ * <code>
+ * java -cp onprem-demo.jar demo.jgoyer.TranslationLoadClient localhost 7070 16 100000 32
+ * </code>
+ * </p>
+ *
+ * @author jgoyer1
+ *
+ */
+public final class TranslationLoadClient {
+
+	private TranslationLoadClient() {
+	}
+
+	/**
+	 * Runs a load test and waits for it to finish.
+	 *
+	 * @param server Server address.
+	 * @param connections Number of concurrent connections.
+	 * @param requests Number of requests sent on each connection.
+	 * @param pipelineDepth Number of requests sent before waiting for responses.
+	 * @return Throughput and latency figures.
+	 * @throws IOException If a connection fails.
+	 * @throws InterruptedException If interrupted while waiting.
+	 */
+	public static Result run( InetSocketAddress server, int connections, int requests, int pipelineDepth )
+			throws IOException, InterruptedException {
+		ExecutorService executor = Executors.newFixedThreadPool( connections );
+		try {
+			List<Future<long[]>> futures = new ArrayList<Future<long[]>>();
+			long start = System.nanoTime();
+			for ( int c = 0; c < connections; c++ ) {
+				final long seed = c;
+				futures.add( executor.submit( (Callable<long[]>)() -> drive( server, requests, pipelineDepth, seed ) ) );
+			}
+			long[] latencies = new long[ connections * requests ];
+			long errors = 0;
+			int filled = 0;
+			for ( Future<long[]> future : futures ) {
+				long[] connectionLatencies = future.get();
+				// The last entry counts error responses
+				errors += connectionLatencies[ requests ];
+				System.arraycopy( connectionLatencies, 0, latencies, filled, requests );
+				filled += requests;
+			}
+			long elapsed = System.nanoTime() - start;
+			Arrays.sort( latencies );
+			return new Result( latencies, errors, elapsed );
+		}
+		catch ( ExecutionException e ) {
+			if ( e.getCause() instanceof IOException ) {
+				throw (IOException)e.getCause();
+			}
+			throw new IllegalStateException( e.getCause() );
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Sends requests on one connection and returns their latencies in nanoseconds,
+	 * followed by the number of error responses.
+	 */
+	private static long[] drive( InetSocketAddress server, int requests, int pipelineDepth, long seed ) throws IOException {
+		long[] latencies = new long[ requests + 1 ];
+		Random random = new Random( seed );
+		ByteBuffer out = ByteBuffer.allocateDirect( pipelineDepth * 12 );
+		ByteBuffer in = ByteBuffer.allocateDirect( 64 << 10 );
+		try ( SocketChannel channel = SocketChannel.open( server ) ) {
+			channel.setOption( StandardSocketOptions.TCP_NODELAY, true );
+			int sent = 0;
+			while ( sent < requests ) {
+				int window = Math.min( pipelineDepth, requests - sent );
+				out.clear();
+				for ( int i = 0; i < window; i++ ) {
+					putDecimal( random.nextInt( Integer.MAX_VALUE ), out );
+					out.put( (byte)'\n' );
+				}
+				out.flip();
+				long start = System.nanoTime();
+				while ( out.hasRemaining() ) {
+					channel.write( out );
+				}
+
+				int received = 0;
+				while ( received < window ) {
+					in.clear();
+					if ( channel.read( in ) < 0 ) {
+						throw new IOException( "server closed the connection after " + ( sent + received ) + " responses" );
+					}
+					long now = System.nanoTime();
+					in.flip();
+					while ( in.hasRemaining() ) {
+						byte b = in.get();
+						if ( b == ':' ) {
+							// Only "error: ..." responses have a colon
+							latencies[ requests ]++;
+						}
+						else if ( b == '\n' ) {
+							latencies[ sent + received++ ] = now - start;
+						}
+					}
+				}
+				sent += window;
+			}
+		}
+		return latencies;
+	}
+
+	private static void putDecimal( int value, ByteBuffer out ) {
+		int digits = 1;
+		for ( int rest = value / 10; rest > 0; rest /= 10 ) {
+			digits++;
+		}
+		int end = out.position() + digits;
+		for ( int i = end - 1; i >= out.position(); i-- ) {
+			out.put( i, (byte)( '0' + value % 10 ) );
+			value /= 10;
+		}
+		out.position( end );
+	}
+
+	/**
+	 * Outcome of a load test.
+	 */
+	public static final class Result {
+		private final long[] latencies;
+		private final long errors;
+		private final long elapsedNanos;
+
+		Result( long[] sortedLatencies, long errors, long elapsedNanos ) {
+			this.latencies = sortedLatencies;
+			this.errors = errors;
+			this.elapsedNanos = elapsedNanos;
+		}
+
+		/**
+		 * @return Number of responses received.
+		 */
+		public long getRequests() {
+			return latencies.length;
+		}
+
+		/**
+		 * @return Number of responses that were errors.
+		 */
+		public long getErrors() {
+			return errors;
+		}
+
+		/**
+		 * @return Requests per second over the whole run.
+		 */
+		public double getThroughput() {
+			return latencies.length * 1e9 / elapsedNanos;
+		}
+
+		/**
+		 * @param percentile Percentile from 0 to 100.
+		 * @return Latency at that percentile in nanoseconds.
+		 */
+		public long getLatencyNanos( double percentile ) {
+			if ( latencies.length == 0 ) {
+				return 0;
+			}
+			int rank = (int)Math.ceil( latencies.length * percentile / 100.0 );
+			return latencies[ Math.max( 0, Math.min( rank, latencies.length ) - 1 ) ];
+		}
+
+		public String toString() {
+			return String.format( "%d requests, %d errors, %.0f requests/s, p50 %d us, p99 %d us, max %d us",
+					              getRequests(), errors, getThroughput(), getLatencyNanos( 50 ) / 1000,
+					              getLatencyNanos( 99 ) / 1000, getLatencyNanos( 100 ) / 1000 );
+		}
+	}
+
+	/**
+	 * Runs a load test and prints the result.
+	 *
+	 * @param args Host, port, connections, requests per connection and pipeline depth.
+	 * @throws Exception If the test fails.
+	 */
+	public static void main( String[] args ) throws Exception {
+		if ( args.length != 5 ) {
+			System.err.println( "usage: TranslationLoadClient <host> <port> <connections> <requests> <pipelineDepth>" );
+			System.exit( 2 );
+		}
+		InetSocketAddress server = new InetSocketAddress( args[ 0 ], Integer.parseInt( args[ 1 ] ) );
+		System.out.println( run( server, Integer.parseInt( args[ 2 ] ), Integer.parseInt( args[ 3 ] ),
+				                 Integer.parseInt( args[ 4 ] ) ) );
+	}
+}
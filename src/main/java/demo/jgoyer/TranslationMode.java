@@ -0,0 +1,30 @@
+package demo.jgoyer;
+
+/**
+ * Selects how a translator runs its {@link RulesSet}.
+ * 
+ * @author jgoyer1
+ *
+ */
+public enum TranslationMode {
+	
+	/**
+	 * Applies every rule of the rules list in turn. Slowest, but each rule can be
+	 * stepped through in a debugger exactly as listed.
+	 */
+	INTERPRETED,
+	
+	/**
+	 * Runs the rules through {@link CompiledRules}, skipping those that cannot 
+	 * apply to the number of digits being translated. Output is identical to
+	 * INTERPRETED.
+	 */
+	COMPILED,
+	
+	/**
+	 * Joins precomputed triad fragments and scale words from {@link TriadTableEnglish}
+	 * instead of running rules. Applies to {@link RulesSetEnglish} only; other rules sets are
+	 * run as in COMPILED. Output is identical to INTERPRETED.
+	 */
+	TRIAD_TABLE
+}
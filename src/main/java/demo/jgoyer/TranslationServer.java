@@ -0,0 +1,394 @@
+package demo.jgoyer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+/**
+ * <p>
+ * Non-blocking TCP server for a line protocol: the client sends a non-negative
+ * decimal int per line and receives its translation, as UTF-8, on a line of its
+ * own. A blank line gets a blank line back, a carriage return before the
+ * newline is ignored, and any other line gets <code>error: ...</code> back
+ * without closing the connection, as does a value whose translation fails.
+ * Responses come back in request order.
+ * </p><p>
+ * One thread runs a selector over every connection and reads them all into
+ * one buffer, so an idle connection costs a key and the partial line it has
+ * sent, never more than {@value #MAX_REQUEST} bytes, rather than a thread or a
+ * buffer of its own. Clients may pipeline: every complete line in a read is
+ * translated in one pass straight into pooled direct output buffers with
+ * {@link SharedIntTranslator#translate(int, java.nio.ByteBuffer)},
+ * and the filled buffers are sent with a single gathering write. While a
+ * connection has unsent responses it is not read, so a client that does not
+ * read cannot make the server buffer without bound.
+ * </p><p>
+ * Example:
+ * </p><p>
+ * <code>
+ * TranslationServer server = new TranslationServer( new InetSocketAddress( 7070 ) ).start();
+ * ...
+ * server.close();
+ * </code>
+ * </p>
+ *
+ * @author jgoyer1
+ *
+ */
+public final class TranslationServer implements Closeable {
+
+	/**
+	 * Longest request line accepted; longer than any int with a carriage return.
+	 */
+	static final int MAX_REQUEST = 64;
+
+	private static final int READ_BUFFER = 16 << 10;
+	private static final int WRITE_BUFFER = 32 << 10;
+
+	private static final byte[] NEWLINE = { '\n' };
+	private static final byte[] BAD_CHARACTER = "error: not a non-negative decimal int\n".getBytes( StandardCharsets.US_ASCII );
+	private static final byte[] OUT_OF_RANGE = "error: value out of range\n".getBytes( StandardCharsets.US_ASCII );
+	private static final byte[] TOO_LONG = "error: line too long\n".getBytes( StandardCharsets.US_ASCII );
+	private static final byte[] FAILED = "error: translation failed\n".getBytes( StandardCharsets.US_ASCII );
+
+	private final SocketAddress address;
+	private final SharedIntTranslator translator;
+	private final ArrayDeque<ByteBuffer> bufferPool = new ArrayDeque<ByteBuffer>();
+	private final ByteBuffer in = ByteBuffer.allocateDirect( READ_BUFFER );
+
+	private Selector selector;
+	private ServerSocketChannel serverChannel;
+	private Thread thread;
+	private volatile boolean running;
+
+	/**
+	 * Creates a server for {@link RulesSetEnglish}.
+	 *
+	 * @param address Address to listen on; port 0 picks a free port.
+	 */
+	public TranslationServer( SocketAddress address ) {
+		this( address, SharedIntTranslator.english() );
+	}
+
+	/**
+	 * @param address Address to listen on; port 0 picks a free port.
+	 * @param translator Translator applied to every request.
+	 */
+	public TranslationServer( SocketAddress address, SharedIntTranslator translator ) {
+		this.address = address;
+		this.translator = translator;
+	}
+
+	/**
+	 * Binds the address and starts the selector thread.
+	 *
+	 * @return This server to allow chained method calling.
+	 * @throws IOException If the address cannot be bound.
+	 */
+	public synchronized TranslationServer start() throws IOException {
+		if ( running ) {
+			throw new IllegalStateException( "already started" );
+		}
+		selector = Selector.open();
+		serverChannel = ServerSocketChannel.open();
+		serverChannel.bind( address, 1024 );
+		serverChannel.configureBlocking( false );
+		serverChannel.register( selector, SelectionKey.OP_ACCEPT );
+		running = true;
+		thread = new Thread( this::run, "TranslationServer-" + getPort() );
+		thread.setDaemon( true );
+		thread.start();
+		return this;
+	}
+
+	/**
+	 * @return Port the server listens on.
+	 * @throws IOException If the server is not bound.
+	 */
+	public int getPort() throws IOException {
+		return ( (InetSocketAddress)serverChannel.getLocalAddress() ).getPort();
+	}
+
+	/**
+	 * Stops accepting, closes every connection and waits for the selector thread to end.
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if ( !running ) {
+			return;
+		}
+		running = false;
+		selector.wakeup();
+		try {
+			thread.join();
+		}
+		catch ( InterruptedException e ) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void run() {
+		try {
+			while ( running ) {
+				selector.select();
+				Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+				while ( keys.hasNext() ) {
+					SelectionKey key = keys.next();
+					keys.remove();
+					try {
+						if ( key.isAcceptable() ) {
+							accept();
+						}
+						else if ( key.isWritable() ) {
+							write( key );
+						}
+						else if ( key.isReadable() ) {
+							read( key );
+						}
+					}
+					catch ( IOException | CancelledKeyException e ) {
+						// The peer went away; only this connection is affected
+						closeConnection( key );
+					}
+				}
+			}
+		}
+		catch ( IOException | ClosedSelectorException e ) {
+			running = false;
+		}
+		finally {
+			for ( SelectionKey key : selector.keys() ) {
+				closeConnection( key );
+			}
+			try {
+				selector.close();
+			}
+			catch ( IOException e ) {
+				// nothing left to release
+			}
+		}
+	}
+
+	private void accept() throws IOException {
+		SocketChannel channel;
+		while ( ( channel = serverChannel.accept() ) != null ) {
+			channel.configureBlocking( false );
+			channel.setOption( StandardSocketOptions.TCP_NODELAY, true );
+			channel.register( selector, SelectionKey.OP_READ, new Connection() );
+		}
+	}
+
+	/**
+	 * Reads what is available after the connection's partial line, translates 
+	 * every complete line in one batch, keeps what is left of the last line and
+	 * writes the responses.
+	 */
+	private void read( SelectionKey key ) throws IOException {
+		Connection connection = (Connection)key.attachment();
+		SocketChannel channel = (SocketChannel)key.channel();
+		in.clear();
+		if ( connection.partialLength > 0 ) {
+			in.put( connection.partial, 0, connection.partialLength );
+		}
+		int read = channel.read( in );
+		if ( read < 0 ) {
+			closeConnection( key );
+			return;
+		}
+
+		in.flip();
+		int lineStart = in.position();
+		for ( int i = lineStart; i < in.limit(); i++ ) {
+			if ( in.get( i ) == '\n' ) {
+				try {
+					respond( connection, in, lineStart, i );
+				}
+				catch ( RuntimeException e ) {
+					// A rules set that throws fails this request only, not the selector thread
+					reserve( connection, FAILED.length ).put( FAILED );
+				}
+				lineStart = i + 1;
+			}
+		}
+		int left = in.limit() - lineStart;
+		if ( left > MAX_REQUEST ) {
+			reserve( connection, TOO_LONG.length ).put( TOO_LONG );
+			connection.closeAfterWrite = true;
+			left = 0;
+		}
+		if ( left > 0 ) {
+			if ( connection.partial == null ) {
+				connection.partial = new byte[ MAX_REQUEST ];
+			}
+			in.position( lineStart );
+			in.get( connection.partial, 0, left );
+		}
+		connection.partialLength = left;
+		if ( connection.current != null ) {
+			write( key );
+		}
+	}
+
+	/**
+	 * Puts the response to the request between from and to, excluding the newline.
+	 * Nothing is put if the translation throws.
+	 */
+	private void respond( Connection connection, ByteBuffer in, int from, int to ) {
+		if ( to > from && in.get( to - 1 ) == '\r' ) {
+			to--;
+		}
+		if ( to == from ) {
+			reserve( connection, NEWLINE.length ).put( NEWLINE );
+			return;
+		}
+		long value = 0;
+		for ( int i = from; i < to; i++ ) {
+			byte b = in.get( i );
+			if ( b < '0' || b > '9' ) {
+				reserve( connection, BAD_CHARACTER.length ).put( BAD_CHARACTER );
+				return;
+			}
+			// Stop accumulating once out of range, but check the rest of the line
+			value = Math.min( 10 * value + ( b - '0' ), Integer.MAX_VALUE + 1L );
+		}
+		if ( value > Integer.MAX_VALUE ) {
+			reserve( connection, OUT_OF_RANGE.length ).put( OUT_OF_RANGE );
+			return;
+		}
+		if ( translator.isEnglish() ) {
+			// ASCII, measured from the tables without translating
+			ByteBuffer out = reserve( connection, translator.translatedLength( (int)value ) + NEWLINE.length );
+			translator.translate( (int)value, out );
+			out.put( NEWLINE );
+		}
+		else {
+			// Translated once, then measured and copied
+			String text = translator.translate( (int)value );
+			ByteBuffer out = reserve( connection, IntQuantityTranslator.utf8Length( text ) + NEWLINE.length );
+			IntQuantityTranslator.putUtf8( text, out );
+			out.put( NEWLINE );
+		}
+	}
+
+	/**
+	 * Returns the connection's output buffer with room for length bytes, queueing
+	 * the current buffer and taking a new one from the pool when it is full. A
+	 * response longer than a pooled buffer gets a buffer of its own.
+	 */
+	private ByteBuffer reserve( Connection connection, int length ) {
+		ByteBuffer current = connection.current;
+		if ( current == null || current.remaining() < length ) {
+			if ( current != null ) {
+				current.flip();
+				connection.pending.add( current );
+			}
+			current = ( length <= WRITE_BUFFER ) ? bufferPool.poll() : ByteBuffer.allocateDirect( length );
+			connection.current = ( current != null ) ? current : ByteBuffer.allocateDirect( WRITE_BUFFER );
+		}
+		return connection.current;
+	}
+
+	/**
+	 * Returns an emptied buffer to the pool, unless it was sized for one long response.
+	 */
+	private void recycle( ByteBuffer buffer ) {
+		if ( buffer.capacity() == WRITE_BUFFER ) {
+			buffer.clear();
+			bufferPool.add( buffer );
+		}
+	}
+
+	/**
+	 * Sends queued responses with one gathering write. Stops reading the
+	 * connection while any are left, and resumes once they are all sent.
+	 */
+	private void write( SelectionKey key ) throws IOException {
+		Connection connection = (Connection)key.attachment();
+		if ( connection.current != null ) {
+			connection.current.flip();
+			connection.pending.add( connection.current );
+			connection.current = null;
+		}
+
+		ByteBuffer[] buffers = connection.pending.toArray( connection.gather );
+		connection.gather = buffers;
+		( (SocketChannel)key.channel() ).write( buffers, 0, connection.pending.size() );
+
+		while ( !connection.pending.isEmpty() && !connection.pending.peek().hasRemaining() ) {
+			recycle( connection.pending.poll() );
+		}
+		if ( !connection.pending.isEmpty() ) {
+			key.interestOps( SelectionKey.OP_WRITE );
+		}
+		else if ( connection.closeAfterWrite ) {
+			closeConnection( key );
+		}
+		else {
+			key.interestOps( SelectionKey.OP_READ );
+		}
+	}
+
+	private void closeConnection( SelectionKey key ) {
+		key.cancel();
+		try {
+			key.channel().close();
+		}
+		catch ( IOException e ) {
+			// already closed
+		}
+		Connection connection = (Connection)key.attachment();
+		if ( connection != null ) {
+			for ( ByteBuffer buffer : connection.pending ) {
+				recycle( buffer );
+			}
+			connection.pending.clear();
+			if ( connection.current != null ) {
+				recycle( connection.current );
+				connection.current = null;
+			}
+		}
+	}
+
+	/**
+	 * Per-connection state, touched only by the selector thread.
+	 */
+	private static final class Connection {
+		/**
+		 * Start of the line still being received, created when first needed.
+		 */
+		byte[] partial;
+		int partialLength;
+		final ArrayDeque<ByteBuffer> pending = new ArrayDeque<ByteBuffer>();
+		ByteBuffer current;
+		ByteBuffer[] gather = new ByteBuffer[ 4 ];
+		boolean closeAfterWrite;
+	}
+
+	/**
+	 * Runs a server until the process is stopped.
+	 *
+	 * @param args Port to listen on, 7070 by default, and optionally the address to bind.
+	 * @throws IOException If the address cannot be bound.
+	 * @throws InterruptedException If interrupted while serving.
+	 */
+	public static void main( String[] args ) throws IOException, InterruptedException {
+		int port = ( args.length > 0 ) ? Integer.parseInt( args[ 0 ] ) : 7070;
+		InetAddress host = ( args.length > 1 ) ? InetAddress.getByName( args[ 1 ] ) : null;
+		TranslationServer server = new TranslationServer( new InetSocketAddress( host, port ) ).start();
+		System.out.println( "Listening on port " + server.getPort() );
+		server.thread.join();
+	}
+}
@@ -0,0 +1,155 @@
+package demo.jgoyer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.IntFunction;
+import java.util.function.LongFunction;
+import java.util.stream.Collector;
+import java.util.stream.IntStream;
+
+/**
+ * <p>
+ * Functions and collectors that translate the elements of IntStream and
+ * LongStream pipelines lazily, as the stream pulls them. Every element goes
+ * through one shared, immutable {@link SharedIntTranslator} and a scratch
+ * StringBuilder kept per thread, so no translator, rules set or boxed value is
+ * created per element and the functions are safe in <code>.parallel()</code>
+ * pipelines.
+ * </p><p>
+ * Example:
+ * </p><p>
+ * <code>
+ * List&lt;String&gt; names = IntStream.range( 0, 1000 ).parallel()
+ *     .mapToObj( TranslationStreams.translating() )
+ *     .collect( Collectors.toList() );
+ * TranslationBatch batch = TranslationStreams.translateToBatch( IntStream.range( 0, 1000 ).parallel() );
+ * </code>
+ * </p><p>
+ * Negative values translate to null, as in {@link QuantityTranslator#translate()}.
+ * </p>
+ *
+ * @author jgoyer1
+ *
+ */
+public final class TranslationStreams {
+
+	private static final ThreadLocal<StringBuilder> SCRATCH = ThreadLocal.withInitial( () -> new StringBuilder( 128 ) );
+
+	/**
+	 * Number of digits in Long.MAX_VALUE.
+	 */
+	private static final int LONG_DIGITS = 19;
+
+	private TranslationStreams() {
+	}
+
+	/**
+	 * @return Function translating ints with {@link RulesSetEnglish}.
+	 */
+	public static IntFunction<String> translating() {
+		return translating( SharedIntTranslator.english() );
+	}
+
+	/**
+	 * Returns a function, for <code>IntStream.mapToObj</code>, that translates
+	 * each value with translator into a scratch buffer of the calling thread.
+	 *
+	 * @param translator Translator applied to every value.
+	 * @return Function returning the translation, or null for a negative value.
+	 */
+	public static IntFunction<String> translating( SharedIntTranslator translator ) {
+		return value -> {
+			StringBuilder out = SCRATCH.get();
+			out.setLength( 0 );
+			return translator.translate( value, out ) ? out.toString() : null;
+		};
+	}
+
+	/**
+	 * @return Function translating longs with {@link RulesSetEnglish}.
+	 */
+	public static LongFunction<String> translatingLongs() {
+		return translatingLongs( SharedIntTranslator.english() );
+	}
+
+	/**
+	 * Returns a function, for <code>LongStream.mapToObj</code>, that translates
+	 * each value, as {@link LongQuantityTranslator} does, with the rules set of
+	 * translator. The rules are compiled once, here, for nineteen digits.
+	 *
+	 * @param translator Translator whose rules set is applied to every value.
+	 * @return Function returning the translation, or null for a negative value.
+	 */
+	public static LongFunction<String> translatingLongs( SharedIntTranslator translator ) {
+		if ( !translator.isEnglish() ) {
+			CompiledRules rules = CompiledRules.compile( translator.getRulesSet(), LONG_DIGITS );
+			return value -> ( value < 0 ) ? null : IntQuantityTranslator.translateCompiled( value, rules );
+		}
+		return value -> {
+			StringBuilder out = SCRATCH.get();
+			out.setLength( 0 );
+			try {
+				return EnglishIntWriter.write( value, out ) ? out.toString() : null;
+			}
+			catch ( IOException e ) {
+				// StringBuilder does not throw
+				throw new UncheckedIOException( e );
+			}
+		};
+	}
+
+	/**
+	 * Returns a collector that packs translations, such as those produced by
+	 * {@link #translating()}, into a {@link TranslationBatch} in encounter order.
+	 * Parallel streams fill a batch per piece and append the pieces in order.
+	 * A null element becomes an untranslated row.
+	 *
+	 * @return Collector into a new batch.
+	 */
+	public static Collector<CharSequence,TranslationBatch,TranslationBatch> toBatch() {
+		return Collector.of( TranslationBatch::new, TranslationStreams::addRow, TranslationBatch::addAll );
+	}
+
+	/**
+	 * Translates every value of the stream with {@link RulesSetEnglish} into a
+	 * batch. See {@link #translateToBatch(IntStream, SharedIntTranslator)}.
+	 *
+	 * @param values Quantities to translate; may be parallel.
+	 * @return Batch with one row per value, in encounter order.
+	 */
+	public static TranslationBatch translateToBatch( IntStream values ) {
+		return translateToBatch( values, SharedIntTranslator.english() );
+	}
+
+	/**
+	 * Translates every value of the stream straight into a batch, with no String
+	 * per value. Parallel streams fill a batch per piece and append the pieces in
+	 * encounter order.
+	 *
+	 * @param values Quantities to translate; may be parallel.
+	 * @param translator Translator applied to every value.
+	 * @return Batch with one row per value, in encounter order.
+	 */
+	public static TranslationBatch translateToBatch( IntStream values, SharedIntTranslator translator ) {
+		return values.collect( TranslationBatch::new,
+				               ( batch, value ) -> addRow( batch, value, translator ),
+				               TranslationBatch::addAll );
+	}
+
+	private static void addRow( TranslationBatch batch, CharSequence text ) {
+		if ( text != null ) {
+			batch.rowWriter.append( text );
+		}
+		batch.endRow( text != null );
+	}
+
+	private static void addRow( TranslationBatch batch, int value, SharedIntTranslator translator ) {
+		try {
+			batch.endRow( translator.translate( value, batch.rowWriter ) );
+		}
+		catch ( IOException e ) {
+			// The batch does not throw
+			throw new UncheckedIOException( e );
+		}
+	}
+}
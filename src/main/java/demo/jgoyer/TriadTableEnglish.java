@@ -0,0 +1,149 @@
+package demo.jgoyer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * <p>
+ * Precomputed English fragments for every three-digit group (triad) value, 0 to
+ * 999, and the scale words of each group position. Any non-negative quantity is
+ * the fragments of its non-zero triads, most significant first, each followed by
+ * the scale word of its group and all joined by single spaces: 345067 is 
+ * "three hundred forty-five" "thousand" "sixty-seven".
+ * <p>
+ * The fragments are derived at build time, by running the compiled 
+ * {@link RulesSetEnglish} over each triad value, so zero hiding, teen 
+ * combination and hyphenation are exactly those of the rules pipeline. The scale
+ * words come from {@link DigitMapEnglish#scaleName(int)}. Both are compiled into
+ * the generated TriadTableData as string constants, so initializing this class
+ * runs no rules and links no lambdas. Zero triads contribute
+ * nothing; the quantity zero on its own is {@link #ZERO}. Every fragment and
+ * scale word is also kept encoded as ASCII bytes for byte-oriented output.
+ * 
+ * @author jgoyer1
+ *
+ */
+public final class TriadTableEnglish {
+	
+	/**
+	 * Number of triads in a long. An int has four. Set by the generator of
+	 * TriadTableData, so that it always matches the tables.
+	 */
+	public static final int GROUPS = TriadTableData.GROUPS;
+	
+	/**
+	 * Name of the quantity zero.
+	 */
+	public static final String ZERO;
+	
+	static final long[] GROUP_POWERS = new long[ GROUPS ];
+	
+	private static final String[] TRIADS = new String[ 1000 ];
+	private static final String[] SCALES = new String[ GROUPS ];
+	
+	// The same fragments pre-encoded as ASCII bytes
+	static final byte[] ZERO_BYTES;
+	private static final byte[][] TRIAD_BYTES = new byte[ 1000 ][];
+	private static final byte[][] SCALE_BYTES = new byte[ GROUPS ][];
+	
+	// Fragment lengths, so output can be measured without touching the text
+	private static final byte[] TRIAD_LENGTHS = new byte[ 1000 ];
+	private static final byte[] SCALE_LENGTHS = new byte[ GROUPS ];
+	
+	static {
+		ZERO = TriadTableData.ZERO;
+		System.arraycopy( TriadTableData.TRIADS, 0, TRIADS, 0, TRIADS.length );
+		long power = 1;
+		for ( int group = 0; group < GROUPS; group++ ) {
+			GROUP_POWERS[ group ] = power;
+			SCALES[ group ] = TriadTableData.SCALES[ group ];
+			power *= 1000;
+		}
+		
+		ZERO_BYTES = ZERO.getBytes( StandardCharsets.US_ASCII );
+		for ( int triad = 0; triad < TRIADS.length; triad++ ) {
+			TRIAD_BYTES[ triad ] = TRIADS[ triad ].getBytes( StandardCharsets.US_ASCII );
+		}
+		SCALE_BYTES[ 0 ] = new byte[ 0 ];
+		for ( int group = 1; group < GROUPS; group++ ) {
+			SCALE_BYTES[ group ] = SCALES[ group ].getBytes( StandardCharsets.US_ASCII );
+		}
+		
+		for ( int triad = 0; triad < TRIADS.length; triad++ ) {
+			TRIAD_LENGTHS[ triad ] = (byte)TRIADS[ triad ].length();
+		}
+		for ( int group = 1; group < GROUPS; group++ ) {
+			SCALE_LENGTHS[ group ] = (byte)SCALES[ group ].length();
+		}
+	}
+	
+	private TriadTableEnglish() {}
+	
+	/**
+	 * @param triad Triad value, 0 to 999.
+	 * @return Fragment text, empty for triad zero.
+	 */
+	public static String triad( int triad ) {
+		return TRIADS[ triad ];
+	}
+	
+	/**
+	 * @param group Group position: 0 for units, 1 for thousands, 2 for millions and so on.
+	 * @return Scale word of the group, or null for the units group.
+	 */
+	public static String scale( int group ) {
+		return ( group < GROUPS ) ? SCALES[ group ] : DigitMapEnglish.scaleName( group );
+	}
+	
+	/**
+	 * @param triad Triad value, 0 to 999.
+	 * @return Fragment encoded as ASCII; the caller must not change it.
+	 */
+	static byte[] triadBytes( int triad ) {
+		return TRIAD_BYTES[ triad ];
+	}
+	
+	/**
+	 * @param group Group position below {@link #GROUPS}.
+	 * @return Scale word encoded as ASCII, empty for the units group; the caller must not change it.
+	 */
+	static byte[] scaleBytes( int group ) {
+		return SCALE_BYTES[ group ];
+	}
+	
+	/**
+	 * @param triad Triad value, 0 to 999.
+	 * @return Number of characters in the fragment.
+	 */
+	static int triadLength( int triad ) {
+		return TRIAD_LENGTHS[ triad ];
+	}
+	
+	/**
+	 * @param group Group position below {@link #GROUPS}.
+	 * @return Number of characters in the scale word, 0 for the units group.
+	 */
+	static int scaleLength( int group ) {
+		return SCALE_LENGTHS[ group ];
+	}
+	
+	/**
+	 * @param value Non-negative quantity.
+	 * @param group Group position.
+	 * @return The triad of value at the group position.
+	 */
+	static int triadAt( long value, int group ) {
+		return (int)( ( value / GROUP_POWERS[ group ] ) % 1000 );
+	}
+	
+	/**
+	 * @param value Non-negative quantity.
+	 * @return Number of groups needed to hold value, at least one.
+	 */
+	static int groupCount( long value ) {
+		int groups = 1;
+		while ( groups < GROUPS && value >= GROUP_POWERS[ groups ] ) {
+			groups++;
+		}
+		return groups;
+	}
+}
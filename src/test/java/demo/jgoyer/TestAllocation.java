@@ -0,0 +1,167 @@
+package demo.jgoyer;
+
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.function.IntConsumer;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Fails when a translation path allocates more bytes per call than its budget.
+ * Budgets are declared per input size, for inputs of 1, 4, 7 and 10 digits, 
+ * with some headroom over the measured allocation; a path that should allocate
+ * nothing has a budget of less than one byte per call.
+ */
+public class TestAllocation {
+	
+	private static final int[] DIGITS = { 1, 4, 7, 10 };
+	
+	private static final int WARMUP_ROUNDS = 20;
+	private static final int MEASURED_ROUNDS = 5;
+	
+	private com.sun.management.ThreadMXBean threads;
+	
+	@Before
+	public void checkSupported() {
+		Assume.assumeTrue( ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean );
+		threads = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+		Assume.assumeTrue( threads.isThreadAllocatedMemorySupported() );
+		threads.setThreadAllocatedMemoryEnabled( true );
+		// Instrumented rules allocate wrappers and counters
+		Assume.assumeTrue( !RulesInstrumentation.ENABLED );
+	}
+	
+	@Test
+	public void testTranslate() {
+		IntQuantityTranslator trx = new IntQuantityTranslator();
+		assertBudget( "compiled translate()", new double[] { 512, 896, 1280, 1664 }, 
+				      value -> trx.withInput( value ).translate() );
+		
+		IntQuantityTranslator interpreted = new IntQuantityTranslator().withTranslationMode( TranslationMode.INTERPRETED );
+		assertBudget( "interpreted translate()", new double[] { 1280, 1792, 2176, 2688 }, 
+				      value -> interpreted.withInput( value ).translate() );
+		
+		IntQuantityTranslator table = new IntQuantityTranslator().withTranslationMode( TranslationMode.TRIAD_TABLE );
+		assertBudget( "triad table translate()", new double[] { 192, 256, 448, 512 }, 
+				      value -> table.withInput( value ).translate() );
+		
+		LongQuantityTranslator longTrx = new LongQuantityTranslator();
+		assertBudget( "long translate()", new double[] { 512, 896, 1280, 1664 }, 
+				      value -> longTrx.withInput( (long)value ).translate() );
+	}
+	
+	@Test
+	public void testPrimitivePaths() {
+		IntQuantityTranslator trx = new IntQuantityTranslator();
+		StringBuilder out = new StringBuilder( 256 );
+		assertBudget( "translate( int, StringBuilder )", zero(), value -> {
+			out.setLength( 0 );
+			trx.translate( value, out );
+		} );
+		
+		ByteBuffer bytes = ByteBuffer.allocateDirect( 256 );
+		assertBudget( "translate( int, ByteBuffer )", zero(), value -> {
+			bytes.clear();
+			trx.translate( value, bytes );
+		} );
+		
+		LongQuantityTranslator longTrx = new LongQuantityTranslator();
+		assertBudget( "translate( long, StringBuilder )", zero(), value -> {
+			out.setLength( 0 );
+			longTrx.translate( (long)value, out );
+		} );
+		
+		SharedIntTranslator shared = SharedIntTranslator.english();
+		assertBudget( "shared translate( int, StringBuilder )", zero(), value -> {
+			out.setLength( 0 );
+			shared.translate( value, out );
+		} );
+		assertBudget( "shared translate( int )", new double[] { 192, 256, 448, 512 }, value -> shared.translate( value ) );
+		assertBudget( "translatedLength( int )", zero(), value -> shared.translatedLength( value ) );
+	}
+	
+	@Test
+	public void testBatch() {
+		IntQuantityTranslator trx = new IntQuantityTranslator();
+		TranslationBatch batch = new TranslationBatch( 16, 4096 );
+		int[] values = new int[ 1 ];
+		assertBudget( "translateBatch into a reused batch", zero(), value -> {
+			if ( batch.size() == 16 ) {
+				batch.clear();
+			}
+			values[ 0 ] = value;
+			trx.translateBatch( values, 0, 1, batch );
+		} );
+	}
+	
+	@Test
+	public void testCacheHit() {
+		TranslationCache cache = new TranslationCache( 100000, EvictionPolicy.LRU );
+		CachingQuantityTranslator<Integer> trx = new CachingQuantityTranslator<Integer>( new IntQuantityTranslator(), cache );
+		// Lookup key and boxed input
+		assertBudget( "cache hit", new double[] { 96, 96, 96, 96 }, value -> trx.withInput( value ).translate() );
+	}
+	
+	@Test
+	public void testParse() {
+		QuantityParser parser = QuantityParser.english();
+		SharedIntTranslator trx = SharedIntTranslator.english();
+		StringBuilder text = new StringBuilder( 256 );
+		assertBudget( "parseInt( CharSequence )", zero(), value -> {
+			text.setLength( 0 );
+			trx.translate( value, text );
+			parser.parseInt( text );
+		} );
+	}
+	
+	private static double[] zero() {
+		return new double[] { 1, 1, 1, 1 };
+	}
+	
+	/**
+	 * Runs call over inputs of each size in DIGITS and fails if the mean bytes
+	 * allocated per call reach the budget for that size.
+	 */
+	private void assertBudget( String path, double[] budgets, IntConsumer call ) {
+		for ( int i = 0; i < DIGITS.length; i++ ) {
+			int[] inputs = inputs( DIGITS[ i ] );
+			for ( int round = 0; round < WARMUP_ROUNDS; round++ ) {
+				for ( int value : inputs ) {
+					call.accept( value );
+				}
+			}
+			// Take the best of a few runs so a deoptimization does not fail the test
+			double best = Double.MAX_VALUE;
+			for ( int run = 0; run < 3; run++ ) {
+				long id = Thread.currentThread().getId();
+				long before = threads.getThreadAllocatedBytes( id );
+				for ( int round = 0; round < MEASURED_ROUNDS; round++ ) {
+					for ( int value : inputs ) {
+						call.accept( value );
+					}
+				}
+				long allocated = threads.getThreadAllocatedBytes( id ) - before;
+				best = Math.min( best, (double)allocated / ( MEASURED_ROUNDS * inputs.length ) );
+			}
+			assertTrue( path + " allocated " + best + " bytes per call for " + DIGITS[ i ] + " digits, budget " + budgets[ i ], 
+					    best < budgets[ i ] );
+		}
+	}
+	
+	/**
+	 * Spreads 1000 inputs evenly over the values with the given number of digits.
+	 */
+	private static int[] inputs( int digits ) {
+		long low = ( digits == 1 ) ? 0 : (long)Math.pow( 10, digits - 1 );
+		long high = ( digits == 10 ) ? Integer.MAX_VALUE : (long)Math.pow( 10, digits ) - 1;
+		int[] inputs = new int[ 1000 ];
+		for ( int i = 0; i < inputs.length; i++ ) {
+			inputs[ i ] = (int)( low + ( high - low ) * i / inputs.length );
+		}
+		return inputs;
+	}
+}
@@ -0,0 +1,79 @@
+package demo.jgoyer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class TestBatchTranslate {
+	
+	@Test
+	public void testBatchMatchesTranslate() {
+		int[] values = new int[ 5000 ];
+		for ( int i = 0; i < values.length; i++ ) {
+			values[ i ] = i * 429497;
+		}
+		values[ 17 ] = -5;
+		
+		IntQuantityTranslator trx = new IntQuantityTranslator();
+		TranslationBatch batch = trx.translateBatch( values );
+		assertEquals( values.length, batch.size() );
+		
+		IntQuantityTranslator reference = new IntQuantityTranslator();
+		for ( int i = 0; i < values.length; i++ ) {
+			assertEquals( reference.withInput( values[ i ] ).translate(), batch.get( i ) );
+		}
+		assertFalse( batch.isTranslated( 17 ) );
+		assertEquals( 0, batch.length( 17 ) );
+		assertEquals( batch.end( values.length - 1 ), batch.charCount() );
+	}
+	
+	@Test
+	public void testBatchReuse() {
+		IntQuantityTranslator trx = new IntQuantityTranslator();
+		TranslationBatch batch = new TranslationBatch( 2, 16 );
+		
+		trx.translateBatch( new int[] { -1, 21, 7000 }, 1, 3, batch );
+		assertEquals( 2, batch.size() );
+		assertEquals( "twenty-one", batch.get( 0 ) );
+		assertEquals( "seven thousand", batch.view( 1 ).toString() );
+		
+		batch.clear();
+		trx.translateBatch( IntBuffer.wrap( new int[] { -1, 0 } ), batch );
+		assertEquals( 2, batch.size() );
+		assertEquals( null, batch.get( 0 ) );
+		assertTrue( batch.isTranslated( 1 ) );
+		assertEquals( "zero", batch.get( 1 ) );
+	}
+	
+	@Test
+	public void testGenericBatch() {
+		TranslationBatch batch = new LongQuantityTranslator().translateBatch( Arrays.asList( 5L, -3L, 1000000000000L ), new TranslationBatch() );
+		assertEquals( "five", batch.get( 0 ) );
+		assertEquals( null, batch.get( 1 ) );
+		assertEquals( "one trillion", batch.get( 2 ) );
+	}
+	
+	@Test( expected = IndexOutOfBoundsException.class )
+	public void testRowOutOfRange() {
+		new TranslationBatch().get( 0 );
+	}
+	
+	@Test
+	public void testLengthLimit() {
+		assertEquals( TranslationBatch.MAX_LENGTH, TranslationBatch.checkLength( TranslationBatch.MAX_LENGTH, "characters" ) );
+		try {
+			// Thirty million ten-digit translations, which overflow an int
+			TranslationBatch.checkLength( 30000000L * 100, "characters" );
+			fail( "expected IllegalStateException" );
+		}
+		catch ( IllegalStateException e ) {
+			assertEquals( "batch would hold 3000000000 characters, more than " + TranslationBatch.MAX_LENGTH, e.getMessage() );
+		}
+	}
+}
@@ -0,0 +1,81 @@
+package demo.jgoyer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.function.Supplier;
+
+import org.junit.Test;
+
+public class TestDifferentialVerifier {
+	
+	@Test
+	public void testFastPathsMatch() throws InterruptedException {
+		DifferentialVerifier verifier = DifferentialVerifier.english().withThreads( 4 ).withChunkSize( 4096 );
+		
+		DifferentialVerifier.Result result = verifier.verify( SharedIntTranslator.english()::translate, 0, 100000 );
+		assertTrue( result.toString(), result.isMatch() );
+		assertEquals( 100001, result.getChecked() );
+		
+		result = verifier.verify( SharedIntTranslator.english()::translateCompact, Integer.MAX_VALUE - 50000, Integer.MAX_VALUE );
+		assertTrue( result.toString(), result.isMatch() );
+		assertEquals( 50001, result.getChecked() );
+		
+		result = verifier.verifyTranslator( 
+				() -> new IntQuantityTranslator().withTranslationMode( TranslationMode.TRIAD_TABLE ), 999990000, 1000010000 );
+		assertTrue( result.toString(), result.isMatch() );
+		
+		result = verifier.verify( SharedIntTranslator.english()::translate, -10, 10 );
+		assertTrue( result.toString(), result.isMatch() );
+	}
+	
+	@Test
+	public void testCompiledRulesMatchInterpreted() throws InterruptedException {
+		DifferentialVerifier verifier = DifferentialVerifier.english().withThreads( 4 ).withChunkSize( 4096 );
+		Supplier<IntQuantityTranslator> compiled = () -> new IntQuantityTranslator().withTranslationMode( TranslationMode.COMPILED );
+		
+		DifferentialVerifier.Result result = verifier.verifyTranslator( compiled, 0, 200000 );
+		assertTrue( result.toString(), result.isMatch() );
+		assertEquals( 200001, result.getChecked() );
+		
+		result = verifier.verifyTranslator( compiled, Integer.MAX_VALUE - 50000, Integer.MAX_VALUE );
+		assertTrue( result.toString(), result.isMatch() );
+	}
+	
+	@Test
+	public void testMismatchesReported() throws InterruptedException {
+		SharedIntTranslator english = SharedIntTranslator.english();
+		DifferentialVerifier.Result result = DifferentialVerifier.english().withThreads( 2 ).withChunkSize( 100 ).withMaxMismatches( 100 )
+				.verify( value -> ( value % 1000 == 115 ) ? "wrong" : english.translate( value ), 0, 20000 );
+		
+		assertFalse( result.isMatch() );
+		assertEquals( 20001, result.getChecked() );
+		assertEquals( 20, result.getMismatchCount() );
+		assertEquals( 20, result.getMismatches().size() );
+		DifferentialVerifier.Mismatch first = result.getMismatches().get( 0 );
+		assertEquals( 115, first.getValue() );
+		assertEquals( "one hundred fifteen", first.getExpected() );
+		assertEquals( "wrong", first.getActual() );
+		assertEquals( 3, first.getTrace().size() );
+		assertTrue( first.getTrace().get( 0 ), first.getTrace().get( 0 ).startsWith( "DigitRecord digit: 5" ) );
+		assertEquals( 1115, result.getMismatches().get( 1 ).getValue() );
+	}
+	
+	@Test
+	public void testStopsAtMaxMismatches() throws InterruptedException {
+		DifferentialVerifier.Result result = DifferentialVerifier.english().withThreads( 1 ).withChunkSize( 1000 )
+				.withMaxMismatches( 3 ).verify( value -> null, 0, 1000000 );
+		assertEquals( 3, result.getChecked() );
+		assertEquals( 3, result.getMismatchCount() );
+		assertEquals( 3, result.getMismatches().size() );
+		assertEquals( 2, result.getMismatches().get( 2 ).getValue() );
+		
+		// Workers stop inside their chunks, and never hold more than the maximum between them
+		result = DifferentialVerifier.english().withThreads( 4 ).withMaxMismatches( 5 ).verify( value -> null, 0, 1000000 );
+		assertEquals( 5, result.getMismatchCount() );
+		assertEquals( 5, result.getMismatches().size() );
+		assertTrue( result.toString(), result.getChecked() < 5 + 4 );
+		assertFalse( result.getMismatches().get( 0 ).getTrace().isEmpty() );
+	}
+}
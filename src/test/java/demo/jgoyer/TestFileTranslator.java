@@ -0,0 +1,121 @@
+package demo.jgoyer;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestFileTranslator {
+	
+	private Path input;
+	private Path output;
+	
+	@Before
+	public void createFiles() throws IOException {
+		input = Files.createTempFile( "amounts", ".txt" );
+		output = Files.createTempFile( "amounts-en", ".txt" );
+	}
+	
+	@After
+	public void deleteFiles() throws IOException {
+		Files.deleteIfExists( input );
+		Files.deleteIfExists( output );
+	}
+	
+	@Test
+	public void testLinesAcrossWindows() throws IOException {
+		StringBuilder text = new StringBuilder();
+		for ( int i = 0; i < 3000; i++ ) {
+			text.append( i * 715827 ).append( i % 3 == 0 ? "\r\n" : "\n" );
+		}
+		text.append( "\n2147483647" );  // blank line, then no final newline
+		Files.write( input, text.toString().getBytes( StandardCharsets.US_ASCII ) );
+		
+		// A small window splits many lines across mappings; a small buffer drains often.
+		long lines = new FileTranslator( SharedIntTranslator.english(), 7, 256 ).translate( input, output );
+		assertEquals( 3002, lines );
+		
+		List<String> results = Files.readAllLines( output, StandardCharsets.US_ASCII );
+		assertEquals( 3002, results.size() );
+		for ( int i = 0; i < 3000; i++ ) {
+			assertEquals( SharedIntTranslator.english().translate( i * 715827 ), results.get( i ) );
+		}
+		assertEquals( "", results.get( 3000 ) );
+		assertEquals( SharedIntTranslator.english().translate( Integer.MAX_VALUE ), results.get( 3001 ) );
+	}
+	
+	@Test
+	public void testEmptyFile() throws IOException {
+		assertEquals( 0, new FileTranslator().translate( input, output ) );
+		assertEquals( 0, Files.size( output ) );
+	}
+	
+	@Test( expected = NumberFormatException.class )
+	public void testRejectsNegative() throws IOException {
+		Files.write( input, Arrays.asList( "12", "-3" ), StandardCharsets.US_ASCII );
+		new FileTranslator().translate( input, output );
+	}
+	
+	@Test( expected = NumberFormatException.class )
+	public void testRejectsOverflow() throws IOException {
+		Files.write( input, Arrays.asList( "2147483648" ), StandardCharsets.US_ASCII );
+		new FileTranslator().translate( input, output );
+	}
+	
+	@Test
+	public void testCarriageReturns() throws IOException {
+		Files.write( input, "1\r\n\r\n2\r".getBytes( StandardCharsets.US_ASCII ) );
+		assertEquals( 3, new FileTranslator().translate( input, output ) );
+		assertEquals( Arrays.asList( "one", "", "two" ), Files.readAllLines( output, StandardCharsets.US_ASCII ) );
+	}
+	
+	@Test( expected = NumberFormatException.class )
+	public void testRejectsCarriageReturnInLine() throws IOException {
+		Files.write( input, "1\r2\n".getBytes( StandardCharsets.US_ASCII ) );
+		new FileTranslator().translate( input, output );
+	}
+	
+	@Test
+	public void testUtf8AndLongLines() throws IOException {
+		StringBuilder longName = new StringBuilder();
+		while ( longName.length() < 1000 ) {
+			longName.append( "sept\u00e9 " );
+		}
+		List<Function<List<DigitRecord>,List<DigitRecord>>> rules = 
+				new ArrayList<Function<List<DigitRecord>,List<DigitRecord>>>( new RulesSetEnglish().getRulesList() );
+		AtomicInteger translations = new AtomicInteger();
+		rules.add( recs -> {
+			translations.incrementAndGet();
+			if ( recs.size() == 1 && recs.get( 0 ).getDigit() == 5 ) {
+				recs.get( 0 ).setName( "f\u00fcnf \u20ac \ud83d\ude00" );
+			}
+			if ( recs.size() == 1 && recs.get( 0 ).getDigit() == 7 ) {
+				recs.get( 0 ).setName( longName.toString().trim() );
+			}
+			return recs;
+		} );
+		StringBuilder text = new StringBuilder();
+		List<String> expected = new ArrayList<String>();
+		for ( int i = 0; i < 200; i++ ) {
+			int value = new int[] { 5, 7, 42 }[ i % 3 ];
+			text.append( value ).append( '\n' );
+			expected.add( ( value == 5 ) ? "f\u00fcnf \u20ac \ud83d\ude00" : ( value == 7 ) ? longName.toString().trim() : "forty-two" );
+		}
+		Files.write( input, text.toString().getBytes( StandardCharsets.US_ASCII ) );
+		
+		new FileTranslator( new SharedIntTranslator( () -> rules ), 64, 256 ).translate( input, output );
+		assertEquals( expected, Files.readAllLines( output, StandardCharsets.UTF_8 ) );
+		assertEquals( 200, translations.get() );
+	}
+}
@@ -0,0 +1,96 @@
+package demo.jgoyer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+public class TestFragmentText {
+	
+	private final SharedIntTranslator english = SharedIntTranslator.english();
+	
+	@Test
+	public void testMatchesString() {
+		for ( long i = 0; i <= Integer.MAX_VALUE; i += 7919 ) {
+			assertSameText( english.translate( (int)i ), english.translateCompact( (int)i ) );
+		}
+		LongQuantityTranslator longTrx = new LongQuantityTranslator();
+		for ( long i = 1; i > 0; i = i * 7 + 3 ) {
+			assertSameText( longTrx.withInput( i ).translate(), english.translateCompact( i ) );
+		}
+		assertSameText( "zero", english.translateCompact( 0 ) );
+		assertNull( english.translateCompact( -1 ) );
+		
+		SharedIntTranslator generic = new SharedIntTranslator( new RulesSetEnglish() { } );
+		assertEquals( "fifteen thousand", generic.translateCompact( 15000 ) );
+	}
+	
+	@Test
+	public void testSubSequence() {
+		String expected = english.translate( 1234567891 );
+		CharSequence text = english.translateCompact( 1234567891 );
+		for ( int start = 0; start <= expected.length(); start += 7 ) {
+			for ( int end = start; end <= expected.length(); end += 5 ) {
+				assertSameText( expected.substring( start, end ), text.subSequence( start, end ) );
+			}
+		}
+		CharSequence nested = text.subSequence( 4, 40 ).subSequence( 8, 20 );
+		assertSameText( expected.substring( 12, 24 ), nested );
+		
+		assertEquals( english.translateCompact( 14 ), english.translateCompact( 314 ).subSequence( 14, 22 ) );
+		assertNotEquals( english.translateCompact( 15 ), english.translateCompact( 14 ) );
+	}
+	
+	@Test
+	public void testFootprint() {
+		Assume.assumeTrue( ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean );
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+		Assume.assumeTrue( threads.isThreadAllocatedMemorySupported() );
+		
+		int count = 20000;
+		char[][] chars = new char[ count ][];
+		for ( int i = 0; i < count; i++ ) {
+			chars[ i ] = english.translate( i * 104729 ).toCharArray();
+		}
+		
+		for ( int i = 0; i < count; i++ ) {
+			// Warm up so that only the retained objects are measured below
+			new String( chars[ i ] );
+			english.translateCompact( i * 104729 );
+		}
+		
+		// Each loop allocates exactly the retained objects
+		long id = Thread.currentThread().getId();
+		String[] strings = new String[ count ];
+		long before = threads.getThreadAllocatedBytes( id );
+		for ( int i = 0; i < count; i++ ) {
+			strings[ i ] = new String( chars[ i ] );
+		}
+		long stringBytes = threads.getThreadAllocatedBytes( id ) - before;
+		
+		CharSequence[] compact = new CharSequence[ count ];
+		before = threads.getThreadAllocatedBytes( id );
+		for ( int i = 0; i < count; i++ ) {
+			compact[ i ] = english.translateCompact( i * 104729 );
+		}
+		long compactBytes = threads.getThreadAllocatedBytes( id ) - before;
+		
+		assertEquals( strings[ count - 1 ], compact[ count - 1 ].toString() );
+		assertTrue( "compact " + compactBytes + " bytes, String " + stringBytes + " bytes", 
+				    compactBytes < stringBytes * 2 / 3 );
+	}
+	
+	private static void assertSameText( String expected, CharSequence actual ) {
+		assertEquals( expected.length(), actual.length() );
+		for ( int i = 0; i < expected.length(); i++ ) {
+			assertEquals( expected.charAt( i ), actual.charAt( i ) );
+		}
+		assertEquals( expected, actual.toString() );
+		assertEquals( expected.hashCode(), actual.hashCode() );
+	}
+}
@@ -0,0 +1,175 @@
+package demo.jgoyer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.List;
+import java.util.function.Function;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestInstrumentation {
+	
+	private final RulesInstrumentation instrumentation = RulesInstrumentation.get();
+	
+	@Before
+	public void reset() {
+		instrumentation.reset();
+	}
+	
+	@Test
+	public void testRuleCounters() {
+		List<DigitRecord> recs = DigitRecords.of( 42 );
+		for ( Function<List<DigitRecord>,List<DigitRecord>> rule : new RulesSetEnglish().getRulesList() ) {
+			instrumentation.wrap( rule ).apply( recs );
+		}
+		assertEquals( "forty-two", DigitRecords.print( recs ) );
+		
+		InstrumentationSnapshot snapshot = instrumentation.snapshot();
+		assertEquals( 27, snapshot.getRuleStats().size() );
+		InstrumentationSnapshot.RuleStats ones = snapshot.getRuleStats( "addDigitName@0" );
+		assertEquals( 1, ones.getInvocations() );
+		assertEquals( 0, ones.getNoOps() );
+		InstrumentationSnapshot.RuleStats billions = snapshot.getRuleStats( "addMagnitudeSuffix@9" );
+		assertEquals( 1, billions.getInvocations() );
+		assertEquals( 1, billions.getNoOps() );
+	}
+	
+	@Test
+	public void testRulesSharingANameCountApart() {
+		List<DigitRecord> recs = DigitRecords.of( 42 );
+		IndexedRule first = new IndexedRule( ( list, index ) -> list, 0 );
+		IndexedRule second = new IndexedRule( ( list, index ) -> list, 0 );
+		IndexedRule english = new IndexedRule( new RulesSetEnglish().addDigitNameBiFcn, 0, "rule" );
+		instrumentation.wrap( new RulesSetEnglish().getRulesList().get( 0 ) ).apply( recs );
+		instrumentation.wrap( first ).apply( recs );
+		instrumentation.wrap( second ).apply( recs );
+		instrumentation.wrap( second ).apply( recs );
+		
+		// The same English rule counts into the same counters whatever its name
+		instrumentation.wrap( english ).apply( recs );
+		
+		InstrumentationSnapshot snapshot = instrumentation.snapshot();
+		long[] invocations = snapshot.getRuleStats().stream()
+				.filter( stats -> stats.getName().startsWith( "rule@0" ) )
+				.mapToLong( InstrumentationSnapshot.RuleStats::getInvocations ).sorted().toArray();
+		assertArrayEquals( new long[] { 1, 2 }, invocations );
+		assertEquals( 2, snapshot.getRuleStats( "addDigitName@0" ).getInvocations() );
+	}
+	
+	@Test
+	public void testLatencyHistogram() throws Exception {
+		instrumentation.recordTranslation( 3, 100 );
+		instrumentation.recordTranslation( 3, 120 );
+		instrumentation.recordTranslation( 3, 5000 );
+		instrumentation.recordTranslation( 40, 1 );
+		
+		InstrumentationSnapshot snapshot = instrumentation.snapshot();
+		assertEquals( 3, snapshot.getTranslationCounts()[ 3 ] );
+		assertEquals( 1, snapshot.getTranslationCounts()[ RulesInstrumentation.MAX_DIGITS ] );
+		assertEquals( 1740.0, snapshot.getMeanNanos( 3 ), 1e-9 );
+		assertEquals( 127, snapshot.getPercentileNanos( 3, 50 ) );
+		assertEquals( 8191, snapshot.getPercentileNanos( 3, 99 ) );
+		assertEquals( 0, snapshot.getPercentileNanos( 5, 99 ) );
+		
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		long[] counts = (long[])server.getAttribute( new ObjectName( RulesInstrumentation.OBJECT_NAME ), "TranslationCounts" );
+		assertArrayEquals( snapshot.getTranslationCounts(), counts );
+	}
+	
+	@Test
+	public void testDisabledTranslatorsDoNotReport() {
+		Assume.assumeTrue( !RulesInstrumentation.ENABLED );
+		new IntQuantityTranslator().withInput( 12345 ).translate();
+		new IntQuantityTranslator().withTranslationMode( TranslationMode.INTERPRETED ).withInput( 12345 ).translate();
+		
+		InstrumentationSnapshot snapshot = instrumentation.snapshot();
+		assertTrue( snapshot.getRuleStats().isEmpty() );
+		assertEquals( 0, snapshot.getTranslationCounts()[ 5 ] );
+	}
+	
+	@Test
+	public void testEnabledTranslatorsReport() throws Exception {
+		try ( URLClassLoader loader = enabledLoader() ) {
+			Object snapshot = translate( loader, "INTERPRETED", 12345 );
+			assertEquals( 1, ( (long[])call( snapshot, "getTranslationCounts" ) )[ 5 ] );
+			assertEquals( 1L, call( call( snapshot, "getRuleStats", "addDigitName@9" ), "getNoOps" ) );
+		}
+	}
+	
+	@Test
+	public void testResetKeepsCompiledRuleCounters() throws Exception {
+		try ( URLClassLoader loader = enabledLoader() ) {
+			Object snapshot = translate( loader, "COMPILED", 12345 );
+			assertEquals( 1L, call( call( snapshot, "getRuleStats", "addDigitName@0" ), "getInvocations" ) );
+			
+			// The compiled rules are cached, so the second translation runs the same wrappers
+			call( call( loader.loadClass( RulesInstrumentation.class.getName() ), "get" ), "reset" );
+			snapshot = translate( loader, "COMPILED", 12345 );
+			assertEquals( 1L, call( call( snapshot, "getRuleStats", "addDigitName@0" ), "getInvocations" ) );
+			assertEquals( 1, ( (long[])call( snapshot, "getTranslationCounts" ) )[ 5 ] );
+			
+			// Rules dropped for five digits are counted as no-ops, as the interpreted pipeline counts them
+			assertEquals( 1L, call( call( snapshot, "getRuleStats", "addDigitName@9" ), "getInvocations" ) );
+			assertEquals( 1L, call( call( snapshot, "getRuleStats", "addDigitName@9" ), "getNoOps" ) );
+			assertEquals( 0L, call( call( snapshot, "getRuleStats", "addDigitName@9" ), "getNanos" ) );
+		}
+	}
+	
+	/**
+	 * Returns a loader of its own copy of the translators, with instrumentation 
+	 * enabled whatever the switch of this JVM.
+	 */
+	private static URLClassLoader enabledLoader() throws ClassNotFoundException {
+		// Keep the MBean name for the instrumentation of this loader
+		RulesInstrumentation.get().register();
+		URL classes = RulesInstrumentation.class.getProtectionDomain().getCodeSource().getLocation();
+		URLClassLoader loader = new URLClassLoader( new URL[] { classes }, ClassLoader.getSystemClassLoader().getParent() );
+		String previous = System.setProperty( RulesInstrumentation.PROPERTY, "true" );
+		try {
+			Class.forName( RulesInstrumentation.class.getName(), true, loader );
+		}
+		finally {
+			if ( previous == null ) {
+				System.clearProperty( RulesInstrumentation.PROPERTY );
+			}
+			else {
+				System.setProperty( RulesInstrumentation.PROPERTY, previous );
+			}
+		}
+		return loader;
+	}
+	
+	/**
+	 * Translates value with an IntQuantityTranslator of loader and returns its instrumentation snapshot.
+	 */
+	private static Object translate( ClassLoader loader, String mode, int value ) throws Exception {
+		Object translator = loader.loadClass( IntQuantityTranslator.class.getName() ).getConstructor().newInstance();
+		Object translationMode = loader.loadClass( TranslationMode.class.getName() ).getField( mode ).get( null );
+		call( call( call( translator, "withTranslationMode", translationMode ), "withInput", value ), "translate" );
+		return call( call( loader.loadClass( RulesInstrumentation.class.getName() ), "get" ), "snapshot" );
+	}
+	
+	/**
+	 * Calls the public method of target, or the static method if target is a class, with that name and number of arguments.
+	 */
+	private static Object call( Object target, String name, Object... args ) throws Exception {
+		Class<?> type = ( target instanceof Class ) ? (Class<?>)target : target.getClass();
+		for ( Method method : type.getMethods() ) {
+			if ( method.getName().equals( name ) && method.getParameterCount() == args.length ) {
+				return method.invoke( ( target instanceof Class ) ? null : target, args );
+			}
+		}
+		throw new NoSuchMethodException( type.getName() + "." + name );
+	}
+}
@@ -1,8 +1,10 @@
 package demo.jgoyer;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Map;
 import java.util.Optional;
 
 import org.junit.Test;
@@ -52,4 +54,25 @@ public class TestIntToName {
 		
 	}
 	
+	@Test
+	public void testNameOf() {
+		assertEquals( "zero", DigitMapEnglish.nameOf( 0 ) );
+		assertEquals( "fifteen", DigitMapEnglish.nameOf( 15 ) );
+		assertEquals( "forty", DigitMapEnglish.nameOf( 40 ) );
+		assertEquals( "hundred", DigitMapEnglish.nameOf( 100 ) );
+		assertEquals( "million", DigitMapEnglish.nameOf( 1000000 ) );
+		assertEquals( null, DigitMapEnglish.nameOf( 42 ) );
+		assertEquals( null, DigitMapEnglish.nameOf( 10000 ) );
+		assertEquals( null, DigitMapEnglish.nameOf( 101 ) );
+		assertEquals( null, DigitMapEnglish.nameOf( -1 ) );
+		assertEquals( null, DigitMapEnglish.nameOf( Integer.MIN_VALUE ) );
+		
+		Map<Integer,String> names = DigitMapEnglish.getNamesMap();
+		assertEquals( 36, names.size() );
+		for ( Map.Entry<Integer,String> entry : names.entrySet() ) {
+			assertEquals( entry.getValue(), DigitMapEnglish.nameOf( entry.getKey() ) );
+		}
+		assertFalse( DigitMapEnglish.intToOptionalName( null ).isPresent() );
+	}
+	
 }
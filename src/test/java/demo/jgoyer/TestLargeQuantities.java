@@ -0,0 +1,88 @@
+package demo.jgoyer;
+
+import static org.junit.Assert.assertEquals;
+
+import java.math.BigInteger;
+
+import org.junit.Test;
+
+public class TestLargeQuantities {
+	
+	@Test
+	public void testLongMaxValue() {
+		QuantityTranslator<Long> trx = new LongQuantityTranslator().withInput( Long.MAX_VALUE );
+		assertEquals( "nine quintillion two hundred twenty-three quadrillion three hundred seventy-two trillion "
+				+ "thirty-six billion eight hundred fifty-four million seven hundred seventy-five thousand eight hundred seven",
+				trx.translate() );
+	}
+	
+	@Test
+	public void testLongMatchesInt() {
+		LongQuantityTranslator trx = new LongQuantityTranslator();
+		IntQuantityTranslator reference = new IntQuantityTranslator();
+		for ( long i = 0; i <= Integer.MAX_VALUE; i += 7919 ) {
+			assertEquals( reference.withInput( (int)i ).translate(), trx.withInput( i ).translate() );
+		}
+		assertEquals( null, trx.withInput( -1L ).translate() );
+	}
+	
+	@Test
+	public void testLongModesMatch() {
+		LongQuantityTranslator compiled = new LongQuantityTranslator();
+		LongQuantityTranslator interpreted = new LongQuantityTranslator().withTranslationMode( TranslationMode.INTERPRETED );
+		LongQuantityTranslator table = new LongQuantityTranslator().withTranslationMode( TranslationMode.TRIAD_TABLE );
+		for ( long i = 1; i > 0 && i <= Long.MAX_VALUE / 3; i = 3 * i + 17 ) {
+			String expected = interpreted.withInput( i ).translate();
+			assertEquals( expected, compiled.withInput( i ).translate() );
+			assertEquals( expected, table.withInput( i ).translate() );
+		}
+		assertEquals( "one trillion", table.withInput( 1000000000000L ).translate() );
+		assertEquals( "twelve trillion", compiled.withInput( 12000000000000L ).translate() );
+	}
+	
+	@Test
+	public void testBigInteger() {
+		BigIntegerQuantityTranslator trx = new BigIntegerQuantityTranslator();
+		assertEquals( "zero", trx.withInput( BigInteger.ZERO ).translate() );
+		assertEquals( "one sextillion", trx.withInput( BigInteger.TEN.pow( 21 ) ).translate() );
+		assertEquals( "one decillion one", trx.withInput( BigInteger.TEN.pow( 33 ).add( BigInteger.ONE ) ).translate() );
+		assertEquals( "twenty vigintillion", trx.withInput( BigInteger.TEN.pow( 64 ).multiply( BigInteger.valueOf( 2 ) ) ).translate() );
+		assertEquals( "one unvigintillion", trx.withInput( BigInteger.TEN.pow( 66 ) ).translate() );
+		assertEquals( null, trx.withInput( BigInteger.ONE.negate() ).translate() );
+	}
+	
+	@Test
+	public void testBigIntegerModesMatch() {
+		BigIntegerQuantityTranslator compiled = new BigIntegerQuantityTranslator();
+		BigIntegerQuantityTranslator interpreted = new BigIntegerQuantityTranslator().withTranslationMode( TranslationMode.INTERPRETED );
+		BigIntegerQuantityTranslator table = new BigIntegerQuantityTranslator().withTranslationMode( TranslationMode.TRIAD_TABLE );
+		LongQuantityTranslator reference = new LongQuantityTranslator();
+		
+		BigInteger value = BigInteger.valueOf( 7 );
+		for ( int i = 0; i < 120; i++ ) {
+			String expected = interpreted.withInput( value ).translate();
+			assertEquals( expected, compiled.withInput( value ).translate() );
+			assertEquals( expected, table.withInput( value ).translate() );
+			if ( value.bitLength() < 63 ) {
+				assertEquals( reference.withInput( value.longValue() ).translate(), expected );
+			}
+			value = value.multiply( BigInteger.valueOf( 13 ) ).add( BigInteger.valueOf( i ) );
+		}
+	}
+	
+	@Test
+	public void testScaleNames() {
+		assertEquals( null, DigitMapEnglish.scaleName( 0 ) );
+		assertEquals( "thousand", DigitMapEnglish.scaleName( 1 ) );
+		assertEquals( "quintillion", DigitMapEnglish.scaleName( 6 ) );
+		assertEquals( "vigintillion", DigitMapEnglish.scaleName( 21 ) );
+		assertEquals( "unvigintillion", DigitMapEnglish.scaleName( 22 ) );
+		assertEquals( "tresvigintillion", DigitMapEnglish.scaleName( 24 ) );
+		assertEquals( "septemvigintillion", DigitMapEnglish.scaleName( 28 ) );
+		assertEquals( "trigintillion", DigitMapEnglish.scaleName( 31 ) );
+		assertEquals( "centillion", DigitMapEnglish.scaleName( 101 ) );
+		assertEquals( "sescentillion", DigitMapEnglish.scaleName( 601 ) );
+		assertEquals( "millinillion", DigitMapEnglish.scaleName( 1001 ) );
+		assertEquals( "millimillion", DigitMapEnglish.scaleName( 1002 ) );
+	}
+}
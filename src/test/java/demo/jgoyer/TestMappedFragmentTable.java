@@ -0,0 +1,107 @@
+package demo.jgoyer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestMappedFragmentTable {
+	
+	private Path dir;
+	private Path file;
+	
+	@Before
+	public void setUp() throws IOException {
+		dir = Files.createTempDirectory( "fragments" );
+		file = dir.resolve( "en.qtft" );
+		MappedFragmentTable.writeEnglish( file );
+	}
+	
+	@After
+	public void tearDown() throws IOException {
+		Files.deleteIfExists( file );
+		Files.deleteIfExists( dir );
+	}
+	
+	@Test
+	public void testMatchesTranslator() throws IOException {
+		MappedFragmentTable table = MappedFragmentTable.open( file );
+		assertEquals( "en", table.getLocale() );
+		
+		LongQuantityTranslator reference = new LongQuantityTranslator();
+		for ( long i = 0; i <= 100000; i++ ) {
+			assertEquals( reference.withInput( i ).translate(), table.translate( i ) );
+		}
+		for ( long i = 1; i > 0; i = i * 7 + 3 ) {
+			assertEquals( reference.withInput( i ).translate(), table.translate( i ) );
+		}
+		assertEquals( reference.withInput( Long.MAX_VALUE ).translate(), table.translate( Long.MAX_VALUE ) );
+		assertNull( table.translate( -1 ) );
+	}
+	
+	@Test
+	public void testByteBuffer() throws IOException {
+		MappedFragmentTable table = MappedFragmentTable.open( file );
+		ByteBuffer direct = ByteBuffer.allocateDirect( 256 );
+		direct.put( (byte)'>' );
+		int length = table.translate( 1234567, direct );
+		assertEquals( table.length( 1234567 ), length );
+		assertEquals( 1 + length, direct.position() );
+		direct.flip().position( 1 );
+		assertEquals( "one million two hundred thirty-four thousand five hundred sixty-seven", 
+				      StandardCharsets.US_ASCII.decode( direct ).toString() );
+		
+		assertEquals( -1, table.translate( -5, direct ) );
+		ByteBuffer small = ByteBuffer.allocate( 10 );
+		try {
+			table.translate( 1234567, small );
+			fail( "expected BufferOverflowException" );
+		}
+		catch ( BufferOverflowException e ) {
+			assertEquals( 0, small.position() );
+		}
+	}
+	
+	@Test
+	public void testRejectsDamagedFile() throws IOException {
+		byte[] bytes = Files.readAllBytes( file );
+		bytes[ bytes.length - 3 ] ^= 1;
+		assertRejected( bytes, "checksum" );
+		
+		bytes = Files.readAllBytes( file );
+		bytes[ 7 ] = 99;
+		assertRejected( bytes, "version" );
+		
+		bytes = Files.readAllBytes( file );
+		bytes[ 0 ] = 0;
+		assertRejected( bytes, "not a fragment table" );
+		
+		assertRejected( new byte[ 3 ], "not a fragment table" );
+	}
+	
+	private void assertRejected( byte[] bytes, String reason ) throws IOException {
+		Path damaged = dir.resolve( "damaged.qtft" );
+		Files.write( damaged, bytes );
+		try {
+			MappedFragmentTable.open( damaged );
+			fail( "expected IOException" );
+		}
+		catch ( IOException e ) {
+			assertTrue( e.getMessage(), e.getMessage().contains( reason ) );
+		}
+		finally {
+			Files.delete( damaged );
+		}
+	}
+}
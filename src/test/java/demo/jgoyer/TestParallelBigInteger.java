@@ -0,0 +1,53 @@
+package demo.jgoyer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+public class TestParallelBigInteger {
+	
+	private final BigIntegerQuantityTranslator reference = 
+			new BigIntegerQuantityTranslator().withTranslationMode( TranslationMode.TRIAD_TABLE );
+	
+	@Test
+	public void testMatchesSequential() {
+		ForkJoinPool pool = new ForkJoinPool( 4 );
+		try {
+			Random random = new Random( 42 );
+			for ( int bits : new int[] { 1, 60, 16384, 16385, 40000, 70000, 140000 } ) {
+				BigInteger value = new BigInteger( bits, random ).setBit( bits - 1 );
+				assertEquals( reference.withInput( value ).translate(), ParallelBigIntegerTranslator.translate( value, pool ) );
+			}
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+	
+	@Test
+	public void testZeroParts() {
+		// Powers of ten leave whole halves zero; one more leaves zero groups in between
+		for ( int exponent : new int[] { 4950, 9000, 24576, 40000 } ) {
+			BigInteger power = BigInteger.TEN.pow( exponent );
+			assertEquals( reference.withInput( power ).translate(), ParallelBigIntegerTranslator.translate( power ) );
+			BigInteger plusOne = power.add( BigInteger.ONE );
+			assertEquals( reference.withInput( plusOne ).translate(), ParallelBigIntegerTranslator.translate( plusOne ) );
+			BigInteger nines = power.subtract( BigInteger.ONE );
+			assertEquals( reference.withInput( nines ).translate(), ParallelBigIntegerTranslator.translate( nines ) );
+		}
+		assertEquals( "zero", ParallelBigIntegerTranslator.translate( BigInteger.ZERO ) );
+		assertEquals( "one sextillion", ParallelBigIntegerTranslator.translate( BigInteger.TEN.pow( 21 ) ) );
+		assertNull( ParallelBigIntegerTranslator.translate( BigInteger.ONE.negate() ) );
+	}
+	
+	@Test
+	public void testPowers() {
+		assertEquals( BigInteger.valueOf( 1000 ), ParallelBigIntegerTranslator.power( 0 ) );
+		assertEquals( BigInteger.TEN.pow( 3 * 16 ), ParallelBigIntegerTranslator.power( 4 ) );
+	}
+}
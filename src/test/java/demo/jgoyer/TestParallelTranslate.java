@@ -0,0 +1,46 @@
+package demo.jgoyer;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+public class TestParallelTranslate {
+	
+	@Test
+	public void testOrderPreserved() {
+		int[] values = new int[ 300000 ];
+		Random random = new Random( 42 );
+		for ( int i = 0; i < values.length; i++ ) {
+			values[ i ] = random.nextInt( Integer.MAX_VALUE ) >> random.nextInt( 31 );
+		}
+		values[ 1234 ] = -1;
+		
+		ForkJoinPool pool = new ForkJoinPool( 4 );
+		try {
+			String[] names = ParallelTranslator.english().translateAll( values, pool );
+			TranslationBatch batch = ParallelTranslator.english().translateAllPacked( values, pool );
+			
+			SharedIntTranslator reference = SharedIntTranslator.english();
+			assertEquals( values.length, batch.size() );
+			for ( int i = 0; i < values.length; i++ ) {
+				String expected = reference.translate( values[ i ] );
+				assertEquals( expected, names[ i ] );
+				assertEquals( expected, batch.get( i ) );
+			}
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+	
+	@Test
+	public void testEmptyAndSingle() {
+		ForkJoinPool pool = ForkJoinPool.commonPool();
+		assertEquals( 0, ParallelTranslator.english().translateAll( new int[ 0 ], pool ).length );
+		assertEquals( 0, ParallelTranslator.english().translateAllPacked( new int[ 0 ], pool ).size() );
+		assertEquals( "forty-two", ParallelTranslator.english().translateAllPacked( new int[] { 42 }, pool ).get( 0 ) );
+	}
+}
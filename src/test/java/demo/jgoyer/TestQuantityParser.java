@@ -0,0 +1,131 @@
+package demo.jgoyer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.OptionalLong;
+import java.util.stream.LongStream;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+public class TestQuantityParser {
+	
+	/**
+	 * Set to true, or build with -Pfull-range, to round-trip every int on all cores.
+	 */
+	private static final String FULL_RANGE = "demo.jgoyer.parser.fullRange";
+	
+	/**
+	 * Values round-tripped across each digit length besides the values at its ends.
+	 */
+	private static final int DENSE_SAMPLES = 200000;
+	
+	/**
+	 * Values round-tripped, one after the other, at each end of a digit length.
+	 */
+	private static final int EDGE = 20000;
+	
+	private final QuantityParser parser = QuantityParser.english();
+	
+	@Test
+	public void testParse() {
+		assertEquals( 0, parser.parseInt( "zero" ) );
+		assertEquals( 21, parser.parseInt( "twenty-one" ) );
+		assertEquals( 314, parser.parseInt( "three hundred fourteen" ) );
+		assertEquals( 15000, parser.parseInt( "fifteen thousand" ) );
+		assertEquals( 100000, parser.parseInt( "one hundred thousand" ) );
+		assertEquals( 1000007, parser.parseInt( "one million seven" ) );
+		assertEquals( Integer.MAX_VALUE, parser.parseInt( 
+				"two billion one hundred forty-seven million four hundred eighty-three thousand six hundred forty-seven" ) );
+		assertEquals( Long.MAX_VALUE, parser.parseLong( new LongQuantityTranslator().withInput( Long.MAX_VALUE ).translate() ) );
+		
+		ByteBuffer bytes = ByteBuffer.wrap( "xx ninety-nine".getBytes( StandardCharsets.US_ASCII ) );
+		bytes.position( 3 );
+		assertEquals( 99, parser.parseInt( bytes ) );
+		assertEquals( 3, bytes.position() );
+	}
+	
+	@Test
+	public void testRejectsOtherText() {
+		String[] invalid = { "", " ", "one ", " one", "one  thousand", "one-thousand", "twenty one", "twenty-ten",
+				             "ten-one", "one hundred and five", "hundred", "thousand", "zero thousand", "one zero",
+				             "one thousand one thousand", "one thousand one million", "One", "oneé", "fourty",
+				             "eleven hundred", "one hundred hundred", "three billion", "ten quintillion", "twenty-" };
+		for ( String text : invalid ) {
+			try {
+				parser.parseInt( text );
+				fail( "parsed \"" + text + "\"" );
+			}
+			catch ( NumberFormatException e ) {
+				// expected
+			}
+		}
+		try {
+			parser.parseLong( "ten quintillion" );
+			fail( "parsed beyond Long.MAX_VALUE" );
+		}
+		catch ( NumberFormatException e ) {
+			// expected
+		}
+	}
+	
+	@Test
+	public void testRoundTripSampled() {
+		roundTrip( 0, 99999, 1 );
+		roundTrip( 100000, Integer.MAX_VALUE, 7919 );
+		roundTrip( Integer.MAX_VALUE, Integer.MAX_VALUE, 1 );
+	}
+	
+	@Test
+	public void testRoundTripEveryLength() {
+		roundTrip( 0, 99999, 1 );
+		long first = 1;
+		for ( int digits = 1; digits <= 10; digits++ ) {
+			long last = Math.min( 10 * first - 1, Integer.MAX_VALUE );
+			roundTrip( first, Math.min( last, first + EDGE ), 1 );
+			roundTrip( Math.max( first, last - EDGE ), last, 1 );
+			// An odd stride that is no multiple of five varies the low digits too
+			long stride = ( ( last - first ) / DENSE_SAMPLES ) | 1;
+			if ( stride % 5 == 0 ) {
+				stride += 2;
+			}
+			roundTrip( first, last, stride );
+			first *= 10;
+		}
+	}
+	
+	@Test
+	public void testRoundTripFullRange() {
+		Assume.assumeTrue( Boolean.getBoolean( FULL_RANGE ) );
+		roundTrip( 0, Integer.MAX_VALUE, 1 );
+	}
+	
+	@Test
+	public void testRoundTripLong() {
+		LongQuantityTranslator trx = new LongQuantityTranslator();
+		ByteBuffer bytes = ByteBuffer.allocateDirect( 256 );
+		for ( long value = 1; value > 0 && value <= Long.MAX_VALUE / 3; value = value * 3 + 1 ) {
+			bytes.clear();
+			trx.translate( value, bytes );
+			bytes.flip();
+			assertEquals( value, parser.parseLong( bytes ) );
+			assertEquals( value, parser.parseLong( trx.withInput( value ).translate() ) );
+		}
+	}
+	
+	/**
+	 * Round-trips every step-th value from first to last, inclusive, on all cores.
+	 */
+	private void roundTrip( long first, long last, long step ) {
+		SharedIntTranslator trx = SharedIntTranslator.english();
+		OptionalLong failed = LongStream.rangeClosed( 0, ( last - first ) / step ).parallel()
+				.map( i -> first + i * step )
+				.filter( value -> parser.parseInt( trx.translate( (int)value ) ) != value )
+				.findFirst();
+		assertFalse( "round trip of " + failed, failed.isPresent() );
+	}
+}
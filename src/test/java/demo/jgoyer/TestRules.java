@@ -2,8 +2,10 @@ package demo.jgoyer;
 
 import static org.junit.Assert.assertEquals;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -162,7 +164,77 @@ public class TestRules {
 		assertEquals( "five billion eight hundred six million eight hundred six thousand three hundred fourteen", result.trim() );
 	}
 	
+	@Test
+	public void testCompiledRulesDropOutOfRangeRules() {
+		CompiledRules compiled = CompiledRules.compile( new RulesSetEnglish() );
+		assertEquals( 1, compiled.getRuleCount( 1 ) );
+		assertEquals( 4, compiled.getRuleCount( 2 ) );
+		assertEquals( 22, compiled.getRuleCount( 10 ) );
+		assertEquals( 27, compiled.getRuleCount( 12 ) );
+		assertEquals( 27, compiled.getRuleCount( 13 ) );
+	}
 	
+	@Test
+	public void testCompiledMatchesInterpreted() {
+		IntQuantityTranslator compiled = new IntQuantityTranslator().withTranslationMode( TranslationMode.COMPILED );
+		IntQuantityTranslator interpreted = new IntQuantityTranslator().withTranslationMode( TranslationMode.INTERPRETED );
+		for ( int i = 0; i <= 200000; i++ ) {
+			assertEquals( interpreted.withInput( i ).translate(), compiled.withInput( i ).translate() );
+		}
+		for ( long i = 200000; i <= Integer.MAX_VALUE; i += 104729 ) {
+			assertEquals( interpreted.withInput( (int)i ).translate(), compiled.withInput( (int)i ).translate() );
+		}
+		assertEquals( null, compiled.withInput( -1 ).translate() );
+	}
 	
+	@Test
+	public void testTranslatorsCompileRulesSetOnce() {
+		// A rules set that builds a new list on every call
+		AtomicInteger lists = new AtomicInteger();
+		RulesSet fresh = new RulesSet() {
+			@Override
+			public List<Function<List<DigitRecord>,List<DigitRecord>>> getRulesList() {
+				return getRulesList( 10 );
+			}
+			
+			@Override
+			public List<Function<List<DigitRecord>,List<DigitRecord>>> getRulesList( int digitCount ) {
+				lists.incrementAndGet();
+				return new ArrayList<Function<List<DigitRecord>,List<DigitRecord>>>( new RulesSetEnglish().getRulesList( digitCount ) );
+			}
+		};
+		
+		IntQuantityTranslator intTranslator = new IntQuantityTranslator();
+		intTranslator.setRulesSet( fresh );
+		LongQuantityTranslator longTranslator = new LongQuantityTranslator();
+		longTranslator.setRulesSet( fresh );
+		SharedIntTranslator shared = new SharedIntTranslator( fresh );
+		int compiled = lists.get();
+		for ( int i = 0; i < 100; i++ ) {
+			assertEquals( "one hundred five", intTranslator.withInput( 105 ).translate() );
+			assertEquals( "one hundred five", longTranslator.withInput( 105L ).translate() );
+			assertEquals( "one hundred five", shared.translate( 105 ) );
+			assertEquals( "one hundred five", shared.translateCompact( 105L ).toString() );
+		}
+		assertEquals( compiled, lists.get() );
+	}
 	
+	@Test
+	public void testCompiledRulesFuseOnlySharedEnglishRules() {
+		RulesSetEnglish shouting = new RulesSetEnglish();
+		shouting.addDigitNameBiFcn = ( recs, index ) -> {
+			if ( index < recs.size() ) {
+				recs.get( index ).setName( DigitMapEnglish.nameOf( recs.get( index ).getDigit() ).toUpperCase() );
+			}
+			return recs;
+		};
+		List<Function<List<DigitRecord>,List<DigitRecord>>> rules = Arrays.asList( 
+				shouting.createAddDigitName.apply( 0 ),
+				new RulesSetEnglish().createAddDigitName.apply( 1 ),
+				new RulesSetEnglish().createSubstituteWithTimesTen.apply( 1 ) );
+		
+		List<DigitRecord> recs = DigitRecords.of( 42 );
+		CompiledRules.compile( () -> rules ).apply( recs );
+		assertEquals( "forty-TWO", DigitRecords.print( recs ) );
+	}
 }
@@ -0,0 +1,141 @@
+package demo.jgoyer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import org.junit.Test;
+
+public class TestRulesRegistry {
+	
+	/**
+	 * English with "and" after a hundred that is followed by tens or units.
+	 */
+	private static RulesSet hundredAnd() {
+		List<Function<List<DigitRecord>,List<DigitRecord>>> rules = 
+				new ArrayList<Function<List<DigitRecord>,List<DigitRecord>>>( new RulesSetEnglish().getRulesList() );
+		rules.add( recs -> {
+			for ( int i = 2; i < recs.size(); i += 3 ) {
+				DigitRecord hundreds = recs.get( i );
+				if ( !hundreds.getHide() && hundreds.getSuffix() != null 
+						&& ( recs.get( i - 1 ).getDigit() != 0 || recs.get( i - 2 ).getDigit() != 0 ) ) {
+					hundreds.setSuffix( hundreds.getSuffix() + " and" );
+				}
+			}
+			return recs;
+		} );
+		return () -> rules;
+	}
+	
+	@Test
+	public void testPublishAndSnapshot() {
+		RulesRegistry registry = new RulesRegistry();
+		assertEquals( 0, registry.getVersion() );
+		assertEquals( 1, registry.publish( "en", new RulesSetEnglish() ) );
+		RulesRegistry.Snapshot first = registry.snapshot();
+		
+		assertEquals( "one hundred five", registry.translate( "en", 105 ) );
+		assertEquals( 2, registry.publish( "en", hundredAnd() ) );
+		assertEquals( "one hundred and five", registry.translate( "en", 105 ) );
+		assertEquals( "one thousand two hundred and thirty-four", registry.translate( "en", 1234 ) );
+		assertEquals( "two hundred thousand", registry.translate( "en", 200000 ) );
+		
+		// An earlier snapshot keeps translating with its own rules
+		assertEquals( 1, first.getVersion() );
+		assertEquals( "one hundred five", first.get( "en" ).translate( 105 ) );
+		
+		Map<String,RulesSet> both = new HashMap<String,RulesSet>();
+		both.put( "en", new RulesSetEnglish() );
+		both.put( "en-GB", hundredAnd() );
+		assertEquals( 3, registry.publish( both ) );
+		assertEquals( "one hundred five", registry.translate( "en", 105 ) );
+		assertEquals( "one hundred and five", registry.translate( "en-GB", 105 ) );
+		
+		assertEquals( 4, registry.remove( "en-GB" ) );
+		assertNull( registry.snapshot().get( "en-GB" ) );
+		assertEquals( 1, registry.snapshot().names().size() );
+		try {
+			registry.translate( "en-GB", 1 );
+			fail( "expected IllegalArgumentException" );
+		}
+		catch ( IllegalArgumentException e ) {
+			assertTrue( e.getMessage().contains( "en-GB" ) );
+		}
+	}
+	
+	@Test
+	public void testPublishedRulesAreCopied() {
+		List<Function<List<DigitRecord>,List<DigitRecord>>> rules = 
+				new ArrayList<Function<List<DigitRecord>,List<DigitRecord>>>( new RulesSetEnglish().getRulesList() );
+		RulesRegistry registry = new RulesRegistry();
+		registry.publish( "en", () -> rules );
+		rules.clear();
+		assertEquals( "forty-two", registry.translate( "en", 42 ) );
+	}
+	
+	@Test
+	public void testFailingRulesRejected() {
+		RulesRegistry registry = new RulesRegistry();
+		registry.publish( "en", new RulesSetEnglish() );
+		List<Function<List<DigitRecord>,List<DigitRecord>>> broken = 
+				new ArrayList<Function<List<DigitRecord>,List<DigitRecord>>>( new RulesSetEnglish().getRulesList() );
+		broken.add( recs -> { 
+			if ( recs.size() > 3 ) {
+				throw new IllegalStateException( "broken rule" );
+			}
+			return recs;
+		} );
+		try {
+			registry.publish( "en", () -> broken );
+			fail( "expected IllegalStateException" );
+		}
+		catch ( IllegalStateException e ) {
+			assertEquals( "broken rule", e.getMessage() );
+		}
+		assertEquals( 1, registry.getVersion() );
+		assertEquals( "one thousand", registry.translate( "en", 1000 ) );
+	}
+	
+	@Test
+	public void testSwapUnderLoad() throws InterruptedException {
+		RulesRegistry registry = new RulesRegistry();
+		registry.publish( "en", new RulesSetEnglish() );
+		RulesSet plain = new RulesSetEnglish();
+		RulesSet and = hundredAnd();
+		
+		AtomicBoolean running = new AtomicBoolean( true );
+		AtomicReference<String> failure = new AtomicReference<String>();
+		Thread[] readers = new Thread[ 3 ];
+		for ( int t = 0; t < readers.length; t++ ) {
+			readers[ t ] = new Thread( () -> {
+				while ( running.get() ) {
+					RulesRegistry.Snapshot snapshot = registry.snapshot();
+					String text = snapshot.get( "en" ).translate( 105 );
+					if ( !text.equals( "one hundred five" ) && !text.equals( "one hundred and five" ) ) {
+						failure.set( text );
+					}
+				}
+			} );
+			readers[ t ].start();
+		}
+		for ( int i = 0; i < 50; i++ ) {
+			registry.publish( "en", ( i % 2 == 0 ) ? and : plain );
+		}
+		running.set( false );
+		for ( Thread reader : readers ) {
+			reader.join();
+		}
+		assertNull( failure.get() );
+		assertEquals( 51, registry.getVersion() );
+		assertEquals( "one hundred five", registry.translate( "en", 105 ) );
+	}
+}
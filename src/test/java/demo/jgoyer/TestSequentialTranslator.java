@@ -0,0 +1,54 @@
+package demo.jgoyer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TestSequentialTranslator {
+	
+	private final LongQuantityTranslator reference = new LongQuantityTranslator();
+	
+	@Test
+	public void testRanges() {
+		long[][] ranges = { { 0, 3000 }, { 999000, 1002000 }, { 999999000, 1000001000 }, 
+				            { Integer.MAX_VALUE - 2000L, Integer.MAX_VALUE + 2000L },
+				            { 999999999999999000L, 1000000000000001000L }, { Long.MAX_VALUE - 1500, Long.MAX_VALUE } };
+		for ( long[] range : ranges ) {
+			SequentialTranslator cursor = new SequentialTranslator( range[ 0 ], range[ 1 ] );
+			long expected = range[ 0 ];
+			while ( cursor.next() ) {
+				assertEquals( expected, cursor.value() );
+				assertEquals( reference.withInput( expected ).translate(), cursor.text().toString() );
+				expected++;
+			}
+			assertEquals( range[ 1 ], expected );
+			assertFalse( cursor.next() );
+		}
+	}
+	
+	@Test
+	public void testMoveTo() throws java.io.IOException {
+		SequentialTranslator cursor = new SequentialTranslator();
+		assertFalse( cursor.next() );
+		Random random = new Random( 17 );
+		long value = 0;
+		for ( int i = 0; i < 20000; i++ ) {
+			// Mostly small steps, sometimes back to zero or a jump anywhere
+			int choice = random.nextInt( 10 );
+			value = ( choice == 0 ) ? 0 : ( choice == 1 ) ? random.nextLong() & Long.MAX_VALUE 
+					                                      : Math.abs( value + random.nextInt( 2000 ) - 1000 );
+			assertEquals( reference.withInput( value ).translate(), cursor.moveTo( value ).toString() );
+		}
+		
+		cursor.moveTo( Long.MAX_VALUE );
+		assertFalse( cursor.next() );
+		
+		StringBuilder out = new StringBuilder();
+		cursor.moveTo( 15000 );
+		cursor.appendTo( out );
+		assertEquals( "fifteen thousand", out.toString() );
+	}
+}
@@ -2,6 +2,16 @@ package demo.jgoyer;
 
 import static org.junit.Assert.assertEquals;
 
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import org.junit.Test;
 
 public class TestTranslate {
@@ -47,6 +57,18 @@ public class TestTranslate {
 		assertEquals( "three hundred thirty-three", result );
 	}
 	
+	@Test
+	public void testHiddenOnesKeepScale() {
+		IntQuantityTranslator trx = new IntQuantityTranslator();
+		assertEquals( "ten thousand", trx.withInput( 10000 ).translate() );
+		assertEquals( "fifteen thousand", trx.withInput( 15000 ).translate() );
+		assertEquals( "twenty thousand", trx.withInput( 20000 ).translate() );
+		assertEquals( "one hundred thousand", trx.withInput( 100000 ).translate() );
+		assertEquals( "eleven million one", trx.withInput( 11000001 ).translate() );
+		assertEquals( "ninety million", trx.withInput( 90000000 ).translate() );
+		assertEquals( "three hundred ten million", trx.withInput( 310000000 ).translate() );
+	}
+	
 	@Test
 	public void testNegative1() {
 		QuantityTranslator<Integer> trx = new IntQuantityTranslator().withInput( -1 );
@@ -64,4 +86,152 @@ public class TestTranslate {
 		
 		assertEquals( "two billion one hundred forty-seven million four hundred eighty-three thousand six hundred forty-seven", result );
 	}
+	
+	@Test
+	public void testPrimitiveMatchesRecords() {
+		IntQuantityTranslator trx = new IntQuantityTranslator();
+		StringBuilder out = new StringBuilder();
+		for ( int i = 0; i <= 1000000; i++ ) {
+			assertPrimitiveMatches( trx, out, i );
+		}
+		for ( long i = 1000000; i <= Integer.MAX_VALUE; i += 9973 ) {
+			assertPrimitiveMatches( trx, out, (int)i );
+		}
+		assertPrimitiveMatches( trx, out, Integer.MAX_VALUE );
+	}
+	
+	@Test
+	public void testPrimitiveNegative() {
+		StringBuilder out = new StringBuilder( "unchanged" );
+		assertEquals( false, new IntQuantityTranslator().translate( -1, out ) );
+		assertEquals( "unchanged", out.toString() );
+	}
+	
+	private static void assertPrimitiveMatches( IntQuantityTranslator trx, StringBuilder out, int value ) {
+		out.setLength( 0 );
+		trx.translate( value, out );
+		assertEquals( trx.withInput( value ).translate(), out.toString() );
+	}
+	
+	@Test
+	public void testSharedTranslatorAcrossThreads() throws Exception {
+		final SharedIntTranslator english = SharedIntTranslator.english();
+		final SharedIntTranslator compiled = new SharedIntTranslator( new RulesSetEnglish() {} );
+		final int threads = 8;
+		
+		ExecutorService pool = Executors.newFixedThreadPool( threads );
+		try {
+			List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+			for ( int t = 0; t < threads; t++ ) {
+				final int first = t;
+				results.add( pool.submit( new Callable<Integer>() {
+					@Override
+					public Integer call() {
+						IntQuantityTranslator reference = new IntQuantityTranslator();
+						int checked = 0;
+						for ( int i = first; i <= 100000; i += threads ) {
+							String expected = reference.withInput( i ).translate();
+							assertEquals( expected, english.translate( i ) );
+							assertEquals( expected, compiled.translate( i ) );
+							checked++;
+						}
+						return checked;
+					}
+				} ) );
+			}
+			int checked = 0;
+			for ( Future<Integer> result : results ) {
+				checked += result.get();
+			}
+			assertEquals( 100001, checked );
+		}
+		finally {
+			pool.shutdown();
+		}
+		assertEquals( null, english.translate( -1 ) );
+		assertEquals( null, compiled.translate( -1 ) );
+	}
+	
+	@Test
+	public void testTriadTableMatchesRecords() {
+		IntQuantityTranslator table = new IntQuantityTranslator().withTranslationMode( TranslationMode.TRIAD_TABLE );
+		IntQuantityTranslator reference = new IntQuantityTranslator().withTranslationMode( TranslationMode.INTERPRETED );
+		for ( int i = 0; i <= 1000000; i += 7 ) {
+			assertEquals( reference.withInput( i ).translate(), table.withInput( i ).translate() );
+		}
+		for ( long i = 1000000; i <= Integer.MAX_VALUE; i += 7919 ) {
+			assertEquals( reference.withInput( (int)i ).translate(), table.withInput( (int)i ).translate() );
+		}
+		for ( int triad = 1; triad < 1000; triad++ ) {
+			assertEquals( reference.withInput( triad ).translate(), TriadTableEnglish.triad( triad ) );
+		}
+		for ( int group = 1; group < TriadTableEnglish.GROUPS; group++ ) {
+			assertEquals( DigitMapEnglish.scaleName( group ), TriadTableEnglish.scale( group ) );
+		}
+		assertEquals( "three hundred forty-five", TriadTableEnglish.triad( 345 ) );
+		assertEquals( "thousand", TriadTableEnglish.scale( 1 ) );
+		assertEquals( null, table.withInput( -1 ).translate() );
+	}
+	
+	@Test
+	public void testByteBufferMatchesString() {
+		IntQuantityTranslator trx = new IntQuantityTranslator();
+		ByteBuffer heap = ByteBuffer.allocate( 256 );
+		ByteBuffer direct = ByteBuffer.allocateDirect( 256 );
+		for ( long i = 0; i <= Integer.MAX_VALUE; i += 3331 ) {
+			String expected = trx.withInput( (int)i ).translate();
+			heap.clear();
+			direct.clear();
+			assertEquals( expected.length(), trx.translate( (int)i, heap ) );
+			assertEquals( expected.length(), SharedIntTranslator.english().translate( (int)i, direct ) );
+			heap.flip();
+			direct.flip();
+			assertEquals( expected, StandardCharsets.US_ASCII.decode( heap ).toString() );
+			assertEquals( expected, StandardCharsets.US_ASCII.decode( direct ).toString() );
+		}
+		assertEquals( -1, trx.translate( -1, heap ) );
+	}
+	
+	@Test
+	public void testByteBufferOverflowLeavesPosition() {
+		ByteBuffer small = ByteBuffer.allocate( 10 );
+		small.put( (byte)'x' );
+		try {
+			new IntQuantityTranslator().translate( 1234567, small );
+		}
+		catch ( BufferOverflowException e ) {
+			assertEquals( 1, small.position() );
+			return;
+		}
+		throw new AssertionError( "expected BufferOverflowException" );
+	}
+	
+	@Test
+	public void testTranslatedLength() {
+		SharedIntTranslator english = SharedIntTranslator.english();
+		// A subclass takes the generic path of translating and measuring
+		SharedIntTranslator generic = new SharedIntTranslator( new RulesSetEnglish() { } );
+		IntQuantityTranslator trx = new IntQuantityTranslator();
+		for ( long i = 0; i <= Integer.MAX_VALUE; i += 3331 ) {
+			int expected = trx.withInput( (int)i ).translate().length();
+			assertEquals( expected, english.translatedLength( (int)i ) );
+			assertEquals( expected, generic.translatedLength( (int)i ) );
+		}
+		LongQuantityTranslator longTrx = new LongQuantityTranslator();
+		for ( long i = 1; i > 0; i = i * 7 + 3 ) {
+			int expected = longTrx.withInput( i ).translate().length();
+			assertEquals( expected, english.translatedLength( i ) );
+			assertEquals( expected, generic.translatedLength( i ) );
+		}
+		assertEquals( -1, english.translatedLength( -1 ) );
+		assertEquals( -1, generic.translatedLength( Long.MIN_VALUE ) );
+		
+		int[] values = { 0, 15000, -3, Integer.MAX_VALUE };
+		long total = 0;
+		for ( int value : values ) {
+			total += ( value < 0 ) ? 0 : trx.withInput( value ).translate().length();
+		}
+		assertEquals( total, english.translatedLength( values ) );
+		assertEquals( total, trx.translateBatch( values ).charCount() );
+	}
 }
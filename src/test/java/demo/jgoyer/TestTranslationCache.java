@@ -0,0 +1,162 @@
+package demo.jgoyer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.Test;
+
+public class TestTranslationCache {
+	
+	@Test
+	public void testHitsAndMisses() {
+		TranslationCache cache = new TranslationCache( 100, EvictionPolicy.LRU );
+		CachingQuantityTranslator<Integer> trx = new CachingQuantityTranslator<Integer>( new IntQuantityTranslator(), cache );
+		
+		assertEquals( "three hundred fourteen", trx.withInput( 314 ).translate() );
+		assertEquals( "three hundred fourteen", trx.withInput( 314 ).translate() );
+		assertEquals( "fifteen thousand", trx.withInput( 15000 ).translate() );
+		assertEquals( null, trx.withInput( -1 ).translate() );
+		
+		CacheStats stats = cache.stats();
+		assertEquals( 1, stats.getHits() );
+		assertEquals( 3, stats.getMisses() );
+		assertEquals( 0, stats.getEvictions() );
+		assertEquals( 2, stats.getSize() );
+		assertEquals( 0.25, stats.getHitRate(), 1e-9 );
+	}
+	
+	@Test
+	public void testLruEviction() {
+		TranslationCache cache = new TranslationCache( 2, EvictionPolicy.LRU, 1 );
+		AtomicInteger calls = new AtomicInteger();
+		RulesSet rules = new RulesSetEnglish();
+		
+		cache.get( 1, rules, () -> "a" + calls.incrementAndGet() );
+		cache.get( 2, rules, () -> "b" + calls.incrementAndGet() );
+		cache.get( 1, rules, () -> "a" + calls.incrementAndGet() );  // 2 is now least recent
+		cache.get( 3, rules, () -> "c" + calls.incrementAndGet() );
+		
+		assertEquals( 1, cache.stats().getEvictions() );
+		assertEquals( "a1", cache.get( 1, rules, () -> "miss" ) );
+		assertEquals( "miss", cache.get( 2, rules, () -> "miss" ) );
+	}
+	
+	@Test
+	public void testLfuEviction() {
+		TranslationCache cache = new TranslationCache( 2, EvictionPolicy.LFU, 1 );
+		RulesSet rules = new RulesSetEnglish();
+		
+		cache.get( 1, rules, () -> "one" );
+		cache.get( 1, rules, () -> "miss" );
+		cache.get( 1, rules, () -> "miss" );
+		cache.get( 2, rules, () -> "two" );
+		cache.get( 2, rules, () -> "miss" );
+		cache.get( 3, rules, () -> "three" );  // evicts 2, read fewer times than 1
+		
+		assertEquals( "one", cache.get( 1, rules, () -> "miss" ) );
+		assertEquals( "three", cache.get( 3, rules, () -> "miss" ) );
+		assertEquals( "miss", cache.get( 2, rules, () -> "miss" ) );
+		assertEquals( 2, cache.size() );
+	}
+	
+	@Test
+	public void testKeyedByRules() {
+		TranslationCache cache = new TranslationCache( 100, EvictionPolicy.LFU );
+		RulesSet rules = new RulesSetEnglish();
+		RulesSet english = new RulesSetEnglish();
+		List<Function<List<DigitRecord>,List<DigitRecord>>> list = rules.getRulesList();
+		RulesSet other = () -> list;
+		RulesSet same = () -> list;
+		
+		assertEquals( "first", cache.get( 7, rules, () -> "first" ) );
+		assertEquals( "first", cache.get( 7, english, () -> "miss" ) );
+		assertEquals( "second", cache.get( 7, other, () -> "second" ) );
+		assertEquals( "second", cache.get( 7, same, () -> "miss" ) );
+		assertEquals( "other type", cache.get( 7L, rules, () -> "other type" ) );
+	}
+	
+	@Test
+	public void testSharedBetweenTranslators() {
+		TranslationCache cache = new TranslationCache( 100, EvictionPolicy.LRU );
+		CachingQuantityTranslator<Long> first = new CachingQuantityTranslator<Long>( new LongQuantityTranslator(), cache );
+		CachingQuantityTranslator<Long> second = new CachingQuantityTranslator<Long>( new LongQuantityTranslator(), cache );
+		
+		assertEquals( "three hundred fourteen", first.withInput( 314L ).translate() );
+		assertEquals( "three hundred fourteen", second.withInput( 314L ).translate() );
+		assertEquals( 1, cache.stats().getHits() );
+		assertEquals( 1, cache.stats().getMisses() );
+		assertEquals( 1, cache.size() );
+	}
+	
+	@Test
+	public void testTranslatorWithoutRulesSet() {
+		TranslationCache cache = new TranslationCache( 100, EvictionPolicy.LRU );
+		QuantityTranslator<Integer> plain = new QuantityTranslator<Integer>() {
+			private Integer input;
+			
+			@Override
+			public String translate() {
+				return "#" + input;
+			}
+			
+			@Override
+			public QuantityTranslator<Integer> withInput( Integer input ) {
+				this.input = input;
+				return this;
+			}
+			
+			@Override
+			public void setRulesSet( RulesSet rules ) {
+			}
+		};
+		CachingQuantityTranslator<Integer> trx = new CachingQuantityTranslator<Integer>( plain, cache );
+		CachingQuantityTranslator<Integer> english = new CachingQuantityTranslator<Integer>( new IntQuantityTranslator(), cache );
+		
+		assertEquals( "#5", trx.withInput( 5 ).translate() );
+		assertEquals( "#5", trx.withInput( 5 ).translate() );
+		assertEquals( "five", english.withInput( 5 ).translate() );
+		assertEquals( 1, cache.stats().getHits() );
+	}
+	
+	@Test
+	public void testSharedBetweenThreads() throws InterruptedException {
+		final TranslationCache cache = new TranslationCache( 500, EvictionPolicy.LRU );
+		final List<AssertionError> failures = new ArrayList<AssertionError>();
+		List<Thread> threads = new ArrayList<Thread>();
+		for ( int t = 0; t < 4; t++ ) {
+			final int seed = t;
+			Thread thread = new Thread( () -> {
+				CachingQuantityTranslator<Long> trx = new CachingQuantityTranslator<Long>( new LongQuantityTranslator(), cache );
+				LongQuantityTranslator reference = new LongQuantityTranslator();
+				for ( long i = 0; i < 5000; i++ ) {
+					long value = ( i * 7919 + seed ) % 1000;
+					try {
+						assertEquals( reference.withInput( value ).translate(), trx.withInput( value ).translate() );
+					}
+					catch ( AssertionError e ) {
+						synchronized ( failures ) {
+							failures.add( e );
+						}
+						return;
+					}
+				}
+			} );
+			threads.add( thread );
+			thread.start();
+		}
+		for ( Thread thread : threads ) {
+			thread.join();
+		}
+		assertTrue( failures.toString(), failures.isEmpty() );
+		
+		CacheStats stats = cache.stats();
+		assertEquals( 20000, stats.getHits() + stats.getMisses() );
+		assertTrue( stats.getSize() <= 500 );
+		assertTrue( stats.getEvictions() > 0 );
+	}
+}
@@ -0,0 +1,160 @@
+package demo.jgoyer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestTranslationServer {
+	
+	private TranslationServer server;
+	private InetSocketAddress address;
+	
+	@Before
+	public void start() throws IOException {
+		server = new TranslationServer( new InetSocketAddress( InetAddress.getLoopbackAddress(), 0 ) ).start();
+		address = new InetSocketAddress( InetAddress.getLoopbackAddress(), server.getPort() );
+	}
+	
+	@After
+	public void stop() throws IOException {
+		server.close();
+	}
+	
+	@Test
+	public void testPipelinedRequests() throws IOException {
+		try ( Socket socket = new Socket( address.getAddress(), address.getPort() ) ) {
+			OutputStream out = socket.getOutputStream();
+			BufferedReader in = new BufferedReader( new InputStreamReader( socket.getInputStream(), StandardCharsets.US_ASCII ) );
+			
+			// Several requests in one write, one split across writes
+			out.write( "314\n0\r\n\n15000\n21474".getBytes( StandardCharsets.US_ASCII ) );
+			out.flush();
+			out.write( "83647\n-5\n2147483648\n".getBytes( StandardCharsets.US_ASCII ) );
+			out.flush();
+			
+			assertEquals( "three hundred fourteen", in.readLine() );
+			assertEquals( "zero", in.readLine() );
+			assertEquals( "", in.readLine() );
+			assertEquals( "fifteen thousand", in.readLine() );
+			assertEquals( SharedIntTranslator.english().translate( Integer.MAX_VALUE ), in.readLine() );
+			assertTrue( in.readLine().startsWith( "error:" ) );
+			assertTrue( in.readLine().startsWith( "error:" ) );
+			
+			// Enough pipelined requests to fill several output buffers
+			StringBuilder requests = new StringBuilder();
+			for ( int i = 0; i < 5000; i++ ) {
+				requests.append( i * 429497 ).append( '\n' );
+			}
+			out.write( requests.toString().getBytes( StandardCharsets.US_ASCII ) );
+			out.flush();
+			for ( int i = 0; i < 5000; i++ ) {
+				assertEquals( SharedIntTranslator.english().translate( i * 429497 ), in.readLine() );
+			}
+		}
+	}
+	
+	@Test
+	public void testPartialLinesKeptPerConnection() throws Exception {
+		try ( Socket first = new Socket( address.getAddress(), address.getPort() );
+			  Socket second = new Socket( address.getAddress(), address.getPort() ) ) {
+			byte[] firstRequests = "1234567\n89\n".getBytes( StandardCharsets.US_ASCII );
+			byte[] secondRequests = "2000000000\n6\n".getBytes( StandardCharsets.US_ASCII );
+			
+			// One byte at a time, alternating, so every read ends inside a line
+			for ( int i = 0; i < Math.max( firstRequests.length, secondRequests.length ); i++ ) {
+				if ( i < firstRequests.length ) {
+					first.getOutputStream().write( firstRequests[ i ] );
+					first.getOutputStream().flush();
+				}
+				if ( i < secondRequests.length ) {
+					second.getOutputStream().write( secondRequests[ i ] );
+					second.getOutputStream().flush();
+				}
+				Thread.sleep( 2 );
+			}
+			
+			BufferedReader firstIn = new BufferedReader( new InputStreamReader( first.getInputStream(), StandardCharsets.US_ASCII ) );
+			BufferedReader secondIn = new BufferedReader( new InputStreamReader( second.getInputStream(), StandardCharsets.US_ASCII ) );
+			assertEquals( SharedIntTranslator.english().translate( 1234567 ), firstIn.readLine() );
+			assertEquals( "eighty-nine", firstIn.readLine() );
+			assertEquals( "two billion", secondIn.readLine() );
+			assertEquals( "six", secondIn.readLine() );
+		}
+	}
+	
+	@Test
+	public void testLongLineClosesConnection() throws IOException {
+		try ( Socket socket = new Socket( address.getAddress(), address.getPort() ) ) {
+			OutputStream out = socket.getOutputStream();
+			BufferedReader in = new BufferedReader( new InputStreamReader( socket.getInputStream(), StandardCharsets.US_ASCII ) );
+			StringBuilder line = new StringBuilder( "7\n" );
+			for ( int i = 0; i < 2 * TranslationServer.MAX_REQUEST; i++ ) {
+				line.append( '1' );
+			}
+			out.write( line.toString().getBytes( StandardCharsets.US_ASCII ) );
+			out.flush();
+			assertEquals( "seven", in.readLine() );
+			assertEquals( "error: line too long", in.readLine() );
+			assertEquals( null, in.readLine() );
+		}
+	}
+	
+	@Test
+	public void testFailingRulesSet() throws IOException {
+		final StringBuilder longName = new StringBuilder();
+		while ( longName.length() < 40000 ) {
+			longName.append( "seven" );
+		}
+		List<Function<List<DigitRecord>,List<DigitRecord>>> rules =
+				new ArrayList<Function<List<DigitRecord>,List<DigitRecord>>>( new RulesSetEnglish().getRulesList() );
+		AtomicInteger translations = new AtomicInteger();
+		rules.add( recs -> {
+			translations.incrementAndGet();
+			if ( recs.size() == 1 && recs.get( 0 ).getDigit() == 9 ) {
+				throw new IllegalStateException( "no nines" );
+			}
+			if ( recs.size() == 1 && recs.get( 0 ).getDigit() == 7 ) {
+				recs.get( 0 ).setName( longName.toString() );
+			}
+			return recs;
+		} );
+		try ( TranslationServer custom = new TranslationServer( new InetSocketAddress( InetAddress.getLoopbackAddress(), 0 ),
+				                                                new SharedIntTranslator( () -> rules ) ).start();
+			  Socket socket = new Socket( address.getAddress(), custom.getPort() ) ) {
+			OutputStream out = socket.getOutputStream();
+			BufferedReader in = new BufferedReader( new InputStreamReader( socket.getInputStream(), StandardCharsets.US_ASCII ) );
+			
+			out.write( "9\n7\n5\n".getBytes( StandardCharsets.US_ASCII ) );
+			out.flush();
+			assertEquals( "error: translation failed", in.readLine() );
+			assertEquals( longName.toString(), in.readLine() );
+			assertEquals( "five", in.readLine() );
+			assertEquals( 3, translations.get() );
+		}
+	}
+	
+	@Test
+	public void testLoadClient() throws Exception {
+		TranslationLoadClient.Result result = TranslationLoadClient.run( address, 4, 2000, 16 );
+		assertEquals( 8000, result.getRequests() );
+		assertEquals( 0, result.getErrors() );
+		assertTrue( result.getThroughput() > 0 );
+		assertTrue( result.getLatencyNanos( 99 ) <= result.getLatencyNanos( 100 ) );
+	}
+}
@@ -0,0 +1,70 @@
+package demo.jgoyer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import org.junit.Test;
+
+public class TestTranslationStreams {
+	
+	private static final int COUNT = 200000;
+	
+	private static int valueAt( int i ) {
+		return ( i * 104729 ) >> ( i % 31 );
+	}
+	
+	@Test
+	public void testParallelMapping() {
+		List<String> names = IntStream.range( 0, COUNT ).parallel().map( TestTranslationStreams::valueAt )
+				.mapToObj( TranslationStreams.translating() ).collect( Collectors.toList() );
+		TranslationBatch batch = IntStream.range( 0, COUNT ).parallel().map( TestTranslationStreams::valueAt )
+				.mapToObj( TranslationStreams.translating() ).collect( TranslationStreams.toBatch() );
+		TranslationBatch direct = TranslationStreams.translateToBatch( 
+				IntStream.range( 0, COUNT ).parallel().map( TestTranslationStreams::valueAt ) );
+		
+		assertEquals( COUNT, names.size() );
+		assertEquals( COUNT, batch.size() );
+		assertEquals( COUNT, direct.size() );
+		for ( int i = 0; i < COUNT; i++ ) {
+			String expected = new IntQuantityTranslator().withInput( valueAt( i ) ).translate();
+			assertEquals( expected, names.get( i ) );
+			assertEquals( expected, batch.get( i ) );
+			assertEquals( expected, direct.get( i ) );
+		}
+	}
+	
+	@Test
+	public void testLongs() {
+		LongQuantityTranslator reference = new LongQuantityTranslator();
+		List<String> names = LongStream.iterate( 1, i -> i * 7 + 3 ).limit( 22 ).parallel()
+				.mapToObj( TranslationStreams.translatingLongs() ).collect( Collectors.toList() );
+		long value = 1;
+		for ( String name : names ) {
+			assertEquals( reference.withInput( value ).translate(), name );
+			value = value * 7 + 3;
+		}
+		
+		SharedIntTranslator generic = new SharedIntTranslator( new RulesSetEnglish() { } );
+		assertEquals( reference.withInput( 5000000000L ).translate(), 
+				      TranslationStreams.translatingLongs( generic ).apply( 5000000000L ) );
+		assertNull( TranslationStreams.translatingLongs().apply( -1 ) );
+	}
+	
+	@Test
+	public void testNegative() {
+		assertNull( TranslationStreams.translating().apply( -5 ) );
+		TranslationBatch batch = TranslationStreams.translateToBatch( IntStream.of( 3, -1, 12 ) );
+		assertEquals( "three", batch.get( 0 ) );
+		assertNull( batch.get( 1 ) );
+		assertEquals( "twelve", batch.get( 2 ) );
+		
+		batch = IntStream.of( 3, -1, 12 ).mapToObj( TranslationStreams.translating() ).collect( TranslationStreams.toBatch() );
+		assertNull( batch.get( 1 ) );
+		assertEquals( "twelve", batch.get( 2 ) );
+	}
+}